@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+plugins {
+    alias(libs.plugins.jmh)
+}
+
+dependencies {
+    "jmhImplementation"(projects.core)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // allocation profiling is always enabled, see gc.alloc.rate.norm in the results
+    profilers.add("gc")
+    resultFormat.set("JSON")
+
+    // run a subset with e.g. ./gradlew :benchmarks:jmh -Pjmh.includes=PathBenchmark
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
+
+tasks.register<JavaExec>("contention") {
+    group = "benchmark"
+    description = "Runs concurrent readers against concurrent writers on shared trees"
+    classpath = project.the<JavaPluginExtension>().sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.aero.node.benchmarks.ContentionHarness")
+    args(providers.gradleProperty("contention.args").getOrElse("").split(" ").filter { it.isNotBlank() })
+}
+
+tasks.register<JavaExec>("footprint") {
+    group = "benchmark"
+    description = "Reports the retained heap of a wide tree with and without a key pool"
+    classpath = project.the<JavaPluginExtension>().sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.aero.node.benchmarks.FootprintHarness")
+    args(providers.gradleProperty("footprint.args").getOrElse("").split(" ").filter { it.isNotBlank() })
+}
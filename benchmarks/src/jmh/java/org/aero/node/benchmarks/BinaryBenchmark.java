@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.BinaryNodeCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding node trees into the binary format and decoding them back, to compare with {@link JsonBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.encoded = BinaryNodeCodec.encode(this.tree);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return BinaryNodeCodec.encode(this.tree);
+    }
+
+    @Benchmark
+    public BasicNode decode() throws IOException {
+        return BinaryNodeCodec.decode(this.encoded.duplicate());
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs reader threads resolving and converting values against writer threads mutating the same tree.
+ *
+ * <p>Every combination of reader and writer thread counts runs on a fresh tree for a fixed duration. Throughput and
+ * latency percentiles are reported per role, together with the number of operations that failed with an exception.
+ * Run it with {@code ./gradlew :benchmarks:contention -Pcontention.args="--readers 1,4,8 --writers 1,4 --seconds 5"}.
+ */
+public final class ContentionHarness {
+
+    private static final int KEYS = 64;
+    private static final int MAX_EVENTS = 1024;
+
+    private final int seconds;
+    private final String[] keys = new String[KEYS];
+
+    private ContentionHarness(int seconds) {
+        this.seconds = seconds;
+        for (int i = 0; i < KEYS; i++) {
+            this.keys[i] = Trees.key(i);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] readers = {1, 2, 4, 8};
+        int[] writers = {0, 1, 2, 4};
+        int seconds = 3;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--readers" -> readers = parse(args[i + 1]);
+                case "--writers" -> writers = parse(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        final ContentionHarness harness = new ContentionHarness(seconds);
+        System.out.printf(Locale.ROOT, "%-8s %-8s %-7s %14s %10s %10s %10s %10s %8s%n",
+            "readers", "writers", "role", "ops/s", "p50 ns", "p99 ns", "p99.9 ns", "max ns", "errors");
+        for (final int reader : readers) {
+            for (final int writer : writers) {
+                harness.run(reader, writer);
+            }
+        }
+    }
+
+    private static int[] parse(String list) {
+        final String[] parts = list.split(",");
+        final int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+
+    private BasicNode createTree() {
+        final BasicNode root = BasicNode.create();
+        for (int i = 0; i < KEYS; i++) {
+            root.node("settings", this.keys[i]).set(i);
+        }
+        root.node("events").appendChild().set(0);
+        return root;
+    }
+
+    private void run(int readers, int writers) throws InterruptedException {
+        final BasicNode tree = this.createTree();
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicLong deadline = new AtomicLong();
+        final List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            workers.add(new Worker(true, tree, start, deadline));
+        }
+        for (int i = 0; i < writers; i++) {
+            workers.add(new Worker(false, tree, start, deadline));
+        }
+        for (final Worker worker : workers) {
+            worker.start();
+        }
+
+        deadline.set(System.nanoTime() + TimeUnit.SECONDS.toNanos(this.seconds));
+        start.countDown();
+        for (final Worker worker : workers) {
+            worker.join();
+        }
+
+        this.report(readers, writers, "read", workers, true);
+        this.report(readers, writers, "write", workers, false);
+    }
+
+    private void report(int readers, int writers, String role, List<Worker> workers, boolean reader) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        long errors = 0;
+        for (final Worker worker : workers) {
+            if (worker.reader == reader) {
+                histogram.add(worker.histogram);
+                errors += worker.errors;
+            }
+        }
+        if (histogram.count() == 0 && errors == 0) {
+            return;
+        }
+        System.out.printf(Locale.ROOT, "%-8d %-8d %-7s %14.0f %10d %10d %10d %10d %8d%n",
+            readers, writers, role, histogram.count() / (double) this.seconds,
+            histogram.percentile(50), histogram.percentile(99), histogram.percentile(99.9), histogram.max(), errors);
+    }
+
+    private final class Worker extends Thread {
+
+        private final boolean reader;
+        private final BasicNode tree;
+        private final CountDownLatch start;
+        private final AtomicLong deadline;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long errors;
+
+        private Worker(boolean reader, BasicNode tree, CountDownLatch start, AtomicLong deadline) {
+            this.reader = reader;
+            this.tree = tree;
+            this.start = start;
+            this.deadline = deadline;
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final long deadline = this.deadline.get();
+            long sink = 0;
+            long now = System.nanoTime();
+            while (now < deadline) {
+                final int key = random.nextInt(KEYS);
+                try {
+                    if (this.reader) {
+                        final Integer value = this.tree.node("settings", ContentionHarness.this.keys[key]).getAs(Integer.class);
+                        sink += value == null ? 0 : value;
+                    } else {
+                        this.write(key, random);
+                    }
+                } catch (RuntimeException e) {
+                    this.errors++;
+                }
+                final long end = System.nanoTime();
+                this.histogram.record(end - now);
+                now = end;
+            }
+            if (sink == Long.MIN_VALUE) {
+                System.out.println(sink); // keep the reads alive
+            }
+        }
+
+        private void write(int key, ThreadLocalRandom random) {
+            final Node events = this.tree.node("events");
+            switch (random.nextInt(3)) {
+                case 0 -> this.tree.node("settings", ContentionHarness.this.keys[key]).set(key);
+                case 1 -> events.appendChild().set(key);
+                default -> {
+                    if (events.childrenList().size() > MAX_EVENTS || random.nextBoolean()) {
+                        events.removeChild(0);
+                    }
+                }
+            }
+        }
+    }
+
+}
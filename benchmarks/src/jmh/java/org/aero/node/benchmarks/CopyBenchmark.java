@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.NodeOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Node#copy()}, {@link Node#from(Node)} and {@link Node#mergeFrom(Node)} of whole trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private BasicNode sharingTree;
+    private Object[] path;
+    private Node overlay;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.sharingTree = Trees.mapTree(NodeOptions.defaults().copyOnWrite(true), this.width, this.depth);
+        this.path = Trees.lastPath(this.width, this.depth);
+        this.overlay = Trees.overlay(this.width, this.depth);
+    }
+
+    @Benchmark
+    public Node copy() {
+        return this.tree.copy();
+    }
+
+    @Benchmark
+    public Node copyOnWrite() {
+        return this.sharingTree.copy();
+    }
+
+    @Benchmark
+    public Node copyOnWriteThenWrite() {
+        final Node copy = this.sharingTree.copy();
+        copy.node(this.path).set("value");
+        return copy;
+    }
+
+    @Benchmark
+    public Node from() {
+        return BasicNode.create().from(this.tree);
+    }
+
+    @Benchmark
+    public Node mergeFrom(final MergeTarget target) {
+        return target.node.mergeFrom(this.overlay);
+    }
+
+    @State(Scope.Thread)
+    public static class MergeTarget {
+
+        private Node node;
+
+        // mergeFrom mutates its target, so every invocation starts from a fresh copy. Only this benchmark uses the
+        // state, so the others run without a setup per invocation.
+        @Setup(Level.Invocation)
+        public void prepare(final CopyBenchmark benchmark) {
+            this.node = benchmark.tree.copy();
+        }
+    }
+
+}
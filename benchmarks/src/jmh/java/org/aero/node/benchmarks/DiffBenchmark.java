@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.NodeDifference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Node#diff(Node)} of a tree against a reloaded tree with one changed leaf.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private BasicNode reloaded;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.reloaded = Trees.mapTree(this.width, this.depth);
+        this.reloaded.node(Trees.lastPath(this.width, this.depth)).set("changed");
+    }
+
+    @Benchmark
+    public List<NodeDifference> diffReloaded() {
+        return this.tree.diff(this.reloaded);
+    }
+
+    @Benchmark
+    public List<NodeDifference> diffFreshReload() {
+        // a tree that was never hashed has to be hashed once before its equal subtrees can be skipped
+        final BasicNode fresh = Trees.mapTree(this.width, this.depth);
+        return this.tree.diff(fresh);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.JsonNodeReader;
+import org.aero.node.core.KeyPool;
+import org.aero.node.core.NodeOptions;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+
+/**
+ * Reports the retained heap of a wide tree read from JSON, with and without a shared {@link KeyPool}.
+ *
+ * <p>The tree holds {@code servers.<n>.{host,port,region,enabled,weight}} for every server, so without a pool each
+ * server keeps its own copies of the same five keys. Run it with
+ * {@code ./gradlew :benchmarks:footprint -Pfootprint.args="--servers 200000"}.</p>
+ */
+public final class FootprintHarness {
+
+    private static final String[] FIELDS = {"host", "port", "region", "enabled", "weight"};
+
+    private FootprintHarness() {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        int servers = 100_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--servers")) {
+                servers = Integer.parseInt(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        final String document = document(servers);
+        System.out.printf(Locale.ROOT, "%-10s %10s %14s %14s%n", "keys", "servers", "retained MB", "bytes/server");
+        // the first round warms up the reader, so only the second one is reported
+        for (int round = 0; round < 2; round++) {
+            final long plain = measure(document, NodeOptions.defaults());
+            final long pooled = measure(document, NodeOptions.defaults().keyPool(KeyPool.create()));
+            if (round == 1) {
+                report("as read", servers, plain);
+                report("pooled", servers, pooled);
+            }
+        }
+    }
+
+    private static String document(int servers) {
+        final StringBuilder builder = new StringBuilder("{\"servers\":{");
+        for (int i = 0; i < servers; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("\"server").append(i).append("\":{\"host\":\"10.0.").append(i >> 8 & 0xFF).append('.')
+                .append(i & 0xFF).append("\",\"port\":").append(8000 + i % 1000).append(",\"region\":\"eu-")
+                .append(i % 4).append("\",\"enabled\":").append(i % 2 == 0).append(",\"weight\":").append(i % 10)
+                .append(".5}");
+        }
+        return builder.append("}}").toString();
+    }
+
+    private static long measure(String document, NodeOptions options) throws IOException {
+        final long before = usedHeap();
+        final BasicNode tree = JsonNodeReader.read(new StringReader(document), BasicNode.create(options));
+        final long after = usedHeap();
+        if (tree.node("servers", "server0", FIELDS[0]).isVirtual()) {
+            throw new IllegalStateException("The tree was not read");
+        }
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // a few collections let the heap settle, the smallest reading is the retained size
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static void report(String keys, int servers, long bytes) {
+        System.out.printf(Locale.ROOT, "%-10s %10d %14.1f %14d%n", keys, servers, bytes / (1024.0 * 1024.0),
+            bytes / servers);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.FrozenNode;
+import org.aero.node.core.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reads of a mutable tree with reads of its {@link Node#freeze() frozen} copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrozenBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private FrozenNode frozen;
+    private Object[] hit;
+    private Object[] miss;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.frozen = this.tree.freeze();
+        this.hit = Trees.lastPath(this.width, this.depth);
+        this.miss = Trees.missingPath(this.depth);
+    }
+
+    @Benchmark
+    public Object mutableGetHit() {
+        return this.tree.node(this.hit).get();
+    }
+
+    @Benchmark
+    public Object frozenGetHit() {
+        return this.frozen.node(this.hit).get();
+    }
+
+    @Benchmark
+    public boolean mutableHasChildMiss() {
+        return this.tree.hasChild(this.miss);
+    }
+
+    @Benchmark
+    public boolean frozenHasChildMiss() {
+        return this.frozen.hasChild(this.miss);
+    }
+
+    @Benchmark
+    public void mutableForEachChild(Blackhole blackhole) {
+        this.tree.forEachChild((key, child) -> blackhole.consume(child));
+    }
+
+    @Benchmark
+    public void frozenForEachChild(Blackhole blackhole) {
+        this.frozen.forEachChild((key, child) -> blackhole.consume(child));
+    }
+
+    @Benchmark
+    public FrozenNode freeze() {
+        return this.tree.freeze();
+    }
+
+}
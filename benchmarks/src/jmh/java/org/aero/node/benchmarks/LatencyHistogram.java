@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+/**
+ * A fixed size log-linear histogram of nanosecond latencies, recording does not allocate.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long total;
+    private long max;
+
+    void record(long nanos) {
+        final long value = Math.max(1, nanos);
+        this.counts[index(value)]++;
+        this.total++;
+        if (value > this.max) {
+            this.max = value;
+        }
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.total += other.total;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    long count() {
+        return this.total;
+    }
+
+    long max() {
+        return this.max;
+    }
+
+    long percentile(double percentile) {
+        if (this.total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(this.total * percentile / 100D));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    private static int index(long value) {
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        final int sub = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long sub = index % SUB_BUCKETS;
+        final long base = (1L << magnitude) | (sub << (magnitude - SUB_BUCKET_BITS));
+        return base + (1L << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Node#appendChild()} and {@link Node#removeChild(Object)} on list nodes of growing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private BasicNode list;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.list = BasicNode.create();
+        for (int i = 0; i < this.size; i++) {
+            this.list.appendChild().setInt(i);
+        }
+    }
+
+    @Benchmark
+    public Node append() {
+        return this.list.appendChild().setInt(0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Node appendConcurrently() {
+        return this.list.appendChild().setInt(0);
+    }
+
+    @Benchmark
+    public Object removeAndReadKey() {
+        // removing from the middle moves every later child, the key of the last one is resolved afterwards
+        this.list.removeChild(this.size / 2);
+        this.list.appendChild().setInt(0);
+        return this.list.node(this.size - 1).key();
+    }
+
+}
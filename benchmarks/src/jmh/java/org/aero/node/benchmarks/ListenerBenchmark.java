@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.NodeSubscription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mutations with and without a {@link Node#subscribe subscribed} listener on the tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerBenchmark extends TreeBenchmark {
+
+    @Param({"false", "true"})
+    public boolean subscribed;
+
+    private BasicNode tree;
+    private Node leaf;
+    private Node overlay;
+    private NodeSubscription subscription;
+    private long delivered;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.leaf = this.tree.node(Trees.lastPath(this.width, this.depth));
+        this.overlay = Trees.overlay(this.width, this.depth);
+        if (this.subscribed) {
+            this.subscription = this.tree.subscribe(changes -> this.delivered += changes.size());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.subscription != null) {
+            this.subscription.close();
+        }
+    }
+
+    @Benchmark
+    public Node setInt() {
+        return this.leaf.setInt(1);
+    }
+
+    @Benchmark
+    public Node mergeFrom() {
+        return this.tree.mergeFrom(this.overlay);
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.MappedNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures opening a memory-mapped tree and reading single paths from it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedBenchmark extends TreeBenchmark {
+
+    private Path file;
+    private MappedNode mapped;
+    private Object[] lastPath;
+
+    @Setup
+    public void setup() throws IOException {
+        this.file = Files.createTempFile("mapped-benchmark", ".bin");
+        MappedNode.write(Trees.mapTree(this.width, this.depth), this.file);
+        this.mapped = MappedNode.open(this.file);
+        this.lastPath = Trees.lastPath(this.width, this.depth);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    public MappedNode open() throws IOException {
+        return MappedNode.open(this.file);
+    }
+
+    @Benchmark
+    public Object readPath() {
+        return this.mapped.node(this.lastPath).get();
+    }
+
+    @Benchmark
+    public boolean hasChildMiss() {
+        return this.mapped.hasChild("missing");
+    }
+
+}
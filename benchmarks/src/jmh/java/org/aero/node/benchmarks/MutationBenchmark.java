@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures {@link Node#set(Object)} and {@link Node#setRaw(Object)} of scalars, maps and lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutationBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private Node leaf;
+    private Map<String, Object> map;
+    private List<Object> list;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.leaf = this.tree.node(Trees.lastPath(this.width, this.depth));
+        this.map = Trees.rawMap(this.width, this.depth);
+        this.list = Trees.rawList(this.width, this.depth);
+    }
+
+    @Benchmark
+    public Node setScalar() {
+        return this.leaf.set("value");
+    }
+
+    @Benchmark
+    public Node setRawScalar() {
+        return this.leaf.setRaw("value");
+    }
+
+    @Benchmark
+    public Node setRawMap() {
+        return BasicNode.create().setRaw(this.map);
+    }
+
+    @Benchmark
+    public Node setRawList() {
+        return BasicNode.create().setRaw(this.list);
+    }
+
+    @Benchmark
+    public Node replaceMap() {
+        return this.tree.node(Trees.key(0)).setRaw(this.map);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.NodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of creating nodes. Divide {@code gc.alloc.rate.norm} by {@code nodes} for the allocation per node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeCreationBenchmark {
+
+    @Param({"100", "10000"})
+    public int nodes;
+
+    private String[] keys;
+    private BasicNode source;
+
+    @Setup
+    public void setup() {
+        this.keys = new String[this.nodes];
+        for (int i = 0; i < this.nodes; i++) {
+            this.keys[i] = "key" + i;
+        }
+        this.source = this.build();
+    }
+
+    @Benchmark
+    public BasicNode build() {
+        final BasicNode root = BasicNode.create();
+        for (int i = 0; i < this.nodes; i++) {
+            root.node(this.keys[i]).set(i);
+        }
+        return root;
+    }
+
+    @Benchmark
+    public BasicNode builder() {
+        final NodeBuilder<BasicNode> builder = NodeBuilder.create().beginMap(this.nodes);
+        for (int i = 0; i < this.nodes; i++) {
+            builder.key(this.keys[i]).value(i);
+        }
+        return builder.end().build();
+    }
+
+    @Benchmark
+    public Node copy() {
+        return this.source.copy();
+    }
+
+    @Benchmark
+    public Node from() {
+        return BasicNode.create().from(this.source);
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.NodeOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link Node#copy()}, {@link Node#from(Node)} and {@link Node#mergeFrom(Node)} of large trees scale
+ * with the parallelism of {@link NodeOptions#forkJoinPool(ForkJoinPool)}. A parallelism of 0 runs without a pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelCopyBenchmark {
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"16"})
+    public int width;
+
+    @Param({"4", "5"})
+    public int depth;
+
+    private ForkJoinPool pool;
+    private NodeOptions options;
+    private BasicNode tree;
+    private Node overlay;
+    private Node target;
+
+    @Setup
+    public void setup() {
+        this.pool = this.parallelism == 0 ? null : new ForkJoinPool(this.parallelism);
+        this.options = NodeOptions.defaults().forkJoinPool(this.pool);
+        this.tree = Trees.mapTree(this.options, this.width, this.depth);
+        this.overlay = Trees.overlay(this.width, this.depth);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareTarget() {
+        // mergeFrom mutates its target, so every invocation starts from a fresh copy
+        this.target = this.tree.copy();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Node copy() {
+        return this.tree.copy();
+    }
+
+    @Benchmark
+    public Node from() {
+        return BasicNode.create(this.options).from(this.tree);
+    }
+
+    @Benchmark
+    public Node mergeFrom() {
+        return this.target.mergeFrom(this.overlay);
+    }
+
+}
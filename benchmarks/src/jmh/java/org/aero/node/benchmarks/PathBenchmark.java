@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.NodePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures path resolution through key arrays, precompiled {@link NodePath}s and parsed path strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private Object[] hit;
+    private Object[] miss;
+    private NodePath hitPath;
+    private NodePath missPath;
+    private String stringPath;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.hit = Trees.lastPath(this.width, this.depth);
+        this.miss = Trees.missingPath(this.depth);
+        this.hitPath = NodePath.of(this.hit);
+        this.missPath = NodePath.of(this.miss);
+        final StringBuilder builder = new StringBuilder();
+        for (final Object key : this.hit) {
+            builder.append(builder.length() == 0 ? "" : ".").append(key);
+        }
+        this.stringPath = builder.toString();
+    }
+
+    @Benchmark
+    public Node nodeHit() {
+        return this.tree.node(this.hit);
+    }
+
+    @Benchmark
+    public Node nodeMiss() {
+        return this.tree.node(this.miss);
+    }
+
+    @Benchmark
+    public boolean hasChildHit() {
+        return this.tree.hasChild(this.hit);
+    }
+
+    @Benchmark
+    public boolean hasChildMiss() {
+        return this.tree.hasChild(this.miss);
+    }
+
+    @Benchmark
+    public Node nodePathHit() {
+        return this.tree.node(this.hitPath);
+    }
+
+    @Benchmark
+    public boolean hasChildPathHit() {
+        return this.tree.hasChild(this.hitPath);
+    }
+
+    @Benchmark
+    public Node stringPathHit() {
+        return this.tree.node(NodePath.parse(this.stringPath));
+    }
+
+    @Benchmark
+    public Node findPathMiss() {
+        return this.tree.find(this.missPath);
+    }
+
+}
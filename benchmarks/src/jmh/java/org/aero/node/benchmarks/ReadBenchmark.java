@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures materialization, children access and equality of whole trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private BasicNode equalTree;
+    private BasicNode changedTree;
+    private BasicNode listTree;
+    private Node leaf;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.equalTree = Trees.mapTree(this.width, this.depth);
+        this.changedTree = Trees.mapTree(this.width, this.depth);
+        this.changedTree.node(Trees.lastPath(this.width, this.depth)).set("changed");
+        this.listTree = Trees.listTree(this.width, this.depth);
+        this.leaf = this.tree.node(Trees.lastPath(this.width, this.depth));
+    }
+
+    @Benchmark
+    public Object getMap() {
+        return this.tree.get();
+    }
+
+    @Benchmark
+    public Object getList() {
+        return this.listTree.get();
+    }
+
+    @Benchmark
+    public Map<Object, ? extends Node> childrenMap() {
+        return this.tree.childrenMap();
+    }
+
+    @Benchmark
+    public List<? extends Node> childrenList() {
+        return this.listTree.childrenList();
+    }
+
+    @Benchmark
+    public boolean equalTrees() {
+        return this.tree.equals(this.equalTree);
+    }
+
+    @Benchmark
+    public boolean unequalTrees() {
+        return this.tree.equals(this.changedTree);
+    }
+
+    @Benchmark
+    public void iterateChildrenMap(Blackhole blackhole) {
+        for (final Node child : this.tree.childrenMap().values()) {
+            blackhole.consume(child);
+        }
+    }
+
+    @Benchmark
+    public void forEachChild(Blackhole blackhole) {
+        this.tree.forEachChild((key, child) -> blackhole.consume(child));
+    }
+
+    @Benchmark
+    public int hashCodeTree() {
+        return this.tree.hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeAfterWrite() {
+        // only the hashes along the path of the leaf are computed again
+        this.leaf.setInt(1);
+        return this.tree.hashCode();
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the typed primitive accessors with the boxed ones. Values above 127 escape the Integer cache, so the boxed
+ * variants show their allocation in {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalarBenchmark {
+
+    private Node boxed;
+    private Node primitive;
+    private int counter = 1000;
+
+    @Setup
+    public void setup() {
+        this.boxed = BasicNode.create().node("counter").set(this.counter);
+        this.primitive = BasicNode.create().node("counter").setInt(this.counter);
+    }
+
+    @Benchmark
+    public Node setBoxed() {
+        return this.boxed.setRaw(++this.counter);
+    }
+
+    @Benchmark
+    public Node setInt() {
+        return this.primitive.setInt(++this.counter);
+    }
+
+    @Benchmark
+    public Integer getBoxed() {
+        return this.boxed.getAs(Integer.class);
+    }
+
+    @Benchmark
+    public int getInt() {
+        return this.primitive.getInt();
+    }
+
+    @Benchmark
+    public int incrementInt() {
+        final int next = this.primitive.getInt() + 1;
+        this.primitive.setInt(next);
+        return next;
+    }
+
+}
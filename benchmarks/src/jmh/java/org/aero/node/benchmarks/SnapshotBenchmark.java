@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.SnapshotNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reads and versioned updates of {@link SnapshotNode} trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private BasicNode changedTree;
+    private SnapshotNode snapshot;
+    private Object[] path;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.snapshot = SnapshotNode.of(this.tree);
+        this.path = Trees.lastPath(this.width, this.depth);
+        this.changedTree = Trees.mapTree(this.width, this.depth);
+        this.changedTree.node(this.path).set("changed");
+    }
+
+    @Benchmark
+    public Object read() {
+        return this.snapshot.node(this.path).get();
+    }
+
+    @Benchmark
+    public boolean hasChild() {
+        return this.snapshot.hasChild(this.path);
+    }
+
+    @Benchmark
+    public Node set() {
+        return this.snapshot.node(this.path).set("value");
+    }
+
+    @Benchmark
+    public Node snapshot() {
+        return SnapshotNode.of(this.tree);
+    }
+
+    @Benchmark
+    public Node updateOneChange() {
+        return this.snapshot.update(this.changedTree);
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.NodeOptions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class Trees {
+
+    private Trees() {
+
+    }
+
+    static String key(int index) {
+        return "key" + index;
+    }
+
+    static BasicNode mapTree(int width, int depth) {
+        return mapTree(NodeOptions.defaults(), width, depth);
+    }
+
+    static BasicNode mapTree(NodeOptions options, int width, int depth) {
+        final BasicNode root = BasicNode.create(options);
+        root.setRaw(rawMap(width, depth));
+        return root;
+    }
+
+    static BasicNode listTree(int width, int depth) {
+        final BasicNode root = BasicNode.create();
+        root.setRaw(rawList(width, depth));
+        return root;
+    }
+
+    static Map<String, Object> rawMap(int width, int depth) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < width; i++) {
+            map.put(key(i), depth <= 1 ? (Object) ("value" + i) : rawMap(width, depth - 1));
+        }
+        return map;
+    }
+
+    static List<Object> rawList(int width, int depth) {
+        final List<Object> list = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            list.add(depth <= 1 ? (Object) i : rawList(width, depth - 1));
+        }
+        return list;
+    }
+
+    static String json(int width, int depth) {
+        final StringBuilder builder = new StringBuilder();
+        appendJson(builder, rawMap(width, depth));
+        return builder.toString();
+    }
+
+    private static void appendJson(StringBuilder builder, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            builder.append('{');
+            boolean first = true;
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                builder.append('"').append(entry.getKey()).append("\":");
+                appendJson(builder, entry.getValue());
+            }
+            builder.append('}');
+        } else if (value instanceof List<?> list) {
+            builder.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                appendJson(builder, list.get(i));
+            }
+            builder.append(']');
+        } else if (value instanceof String) {
+            builder.append('"').append(value).append('"');
+        } else {
+            builder.append(value);
+        }
+    }
+
+    static Object[] lastPath(int width, int depth) {
+        final Object[] path = new Object[depth];
+        for (int i = 0; i < depth; i++) {
+            path[i] = key(width - 1);
+        }
+        return path;
+    }
+
+    static Object[] missingPath(int depth) {
+        final Object[] path = new Object[depth];
+        for (int i = 0; i < depth; i++) {
+            path[i] = "missing" + i;
+        }
+        return path;
+    }
+
+    static Node overlay(int width, int depth) {
+        // every second key collides with the base tree, the others are new
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < width; i++) {
+            final String key = i % 2 == 0 ? key(i) : "overlay" + i;
+            map.put(key, depth <= 1 ? (Object) ("overlay" + i) : rawMap(width, depth - 1));
+        }
+        final BasicNode node = BasicNode.create();
+        node.setRaw(map);
+        return node;
+    }
+
+}
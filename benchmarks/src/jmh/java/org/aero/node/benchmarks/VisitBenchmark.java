@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.benchmarks;
+
+import org.aero.node.core.BasicNode;
+import org.aero.node.core.Node;
+import org.aero.node.core.NodeVisitor;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Node#visit(NodeVisitor)} against a recursive walk over the children maps, and {@link Node#equals}
+ * of whole trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisitBenchmark extends TreeBenchmark {
+
+    private BasicNode tree;
+    private Node copy;
+
+    @Setup
+    public void setup() {
+        this.tree = Trees.mapTree(this.width, this.depth);
+        this.copy = this.tree.copy();
+    }
+
+    @Benchmark
+    public int visit() {
+        final Counter counter = new Counter();
+        this.tree.visit(counter);
+        return counter.count;
+    }
+
+    @Benchmark
+    public int recursiveWalk() {
+        return count(this.tree);
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return this.tree.equals(this.copy);
+    }
+
+    private static int count(final Node node) {
+        int count = 1;
+        for (final Node child : node.childrenMap().values()) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    private static final class Counter implements NodeVisitor {
+
+        private int count;
+
+        @Override
+        public boolean enterMap(@NotNull Node node) {
+            this.count++;
+            return true;
+        }
+
+        @Override
+        public void visitScalar(@NotNull Node node) {
+            this.count++;
+        }
+    }
+
+}
@@ -98,7 +98,10 @@ subprojects {
         from(project.the<JavaPluginExtension>().sourceSets["main"].allJava)
     }
 
-    configurePublishing("java", true)
+    // benchmarks are only run locally and never published
+    if (name != "benchmarks") {
+        configurePublishing("java", true)
+    }
 }
 
 extensions.configure<NexusPublishExtension> {
@@ -17,35 +17,59 @@
 package org.aero.node.core;
 
 import org.aero.common.core.validate.Check;
-import org.aero.conversion.core.ConversionBus;
-import org.aero.conversion.core.ObjectMappingConversionBus;
 import org.aero.conversion.core.exception.ConversionException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 public abstract class AbstractNode<N extends ScopedNode<N>, A extends AbstractNode<N, A>> implements ScopedNode<N> {
 
-    private final ConversionBus conversionService = ObjectMappingConversionBus.createDefault();
+    // values are swapped with compare-and-set, so no transition ever holds a monitor
+    private static final VarHandle VALUE;
+    private static final VarHandle EVENTS;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(AbstractNode.class, "value", NodeValue.class);
+            EVENTS = MethodHandles.lookup().findVarHandle(AbstractNode.class, "events", NodeEvents.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final NodeOptions options;
 
     volatile boolean attached;
     volatile @Nullable Object key;
     volatile NodeValue<N, A> value;
+    // the subscriptions of the tree, only kept by its root
+    volatile @Nullable NodeEvents events;
+    // the cached hash of the value and whether it is valid, see NodeHasher
+    volatile long hash;
+    volatile long hashState;
 
-    private @Nullable A parent;
+    @Nullable A parent;
 
-    //TODO: Replace bool with something else
-    protected AbstractNode(@Nullable Object key, @Nullable A parent, boolean bool) {
+    protected AbstractNode(@Nullable Object key, @Nullable A parent, @NotNull NodeOptions options) {
         Check.argCondition((key == null) != (parent == null),
             "The key and the parent must share the same nullability status");
+        Check.notNull(options, "options");
         this.key = key;
         this.parent = parent;
+        this.options = options;
         this.value = NullNodeValue.instance();
 
         if (parent == null) {
@@ -57,11 +81,26 @@ protected AbstractNode(@Nullable A parent, A copyOf) {
         this.attached = true; // copies are always attached
         this.key = copyOf.key;
         this.parent = parent;
-        this.value = copyOf.value.copy(this.implSelf());
+        this.options = copyOf.options();
+        if (this.options.copyOnWrite()) {
+            this.value = copyOf.sharedValue();
+        } else {
+            this.value = NodeCopier.copy(copyOf, this.implSelf());
+        }
+    }
+
+    @Override
+    public final @NotNull NodeOptions options() {
+        return this.options;
     }
 
     @Override
     public final @Nullable Object key() {
+        // list children learn their new index lazily after an earlier sibling was removed
+        final @Nullable A parent = this.parent;
+        if (this.key instanceof Integer && parent != null && parent.value instanceof ListNodeValue<N, A> list) {
+            list.reindex();
+        }
         return this.key;
     }
 
@@ -95,6 +134,41 @@ public final boolean hasChild(@NotNull Iterable<?> path) {
         return true;
     }
 
+    @Override
+    public final @NotNull N node(@NotNull NodePath path) {
+        A pointer = this.implSelf();
+        for (int i = 0; i < path.size(); i++) {
+            pointer = pointer.child(path.get(i));
+        }
+        return pointer.self();
+    }
+
+    @Override
+    public final boolean hasChild(@NotNull NodePath path) {
+        A pointer = this.implSelf();
+        for (int i = 0; i < path.size(); i++) {
+            A child = pointer.value.child(path.get(i));
+            if (child == null) {
+                return false;
+            }
+            pointer = child;
+        }
+        return true;
+    }
+
+    @Override
+    public final @Nullable N find(@NotNull NodePath path) {
+        A pointer = this.implSelf();
+        for (int i = 0; i < path.size(); i++) {
+            A child = pointer.localValue().child(path.get(i));
+            if (child == null) {
+                return null;
+            }
+            pointer = child;
+        }
+        return pointer.self();
+    }
+
     @Override
     public final @NotNull N appendChild() {
         // the appended node can have a key of -1
@@ -104,7 +178,20 @@ public final boolean hasChild(@NotNull Iterable<?> path) {
 
     @Override
     public final boolean removeChild(final @NotNull Object key) {
-        return this.detachIfNonNull(this.value.putChild(key, null)) != null;
+        final NodeEvents.@Nullable Batch batch = NodeEvents.begin();
+        try {
+            this.unshareAncestors();
+            final @Nullable A removed = this.unshareValue().putChild(key, null);
+            if (removed == null) {
+                return false;
+            }
+            NodeHasher.invalidate(this);
+            NodeEvents.record(removed, NodeChange.Type.REMOVE);
+            this.detachIfNonNull(removed);
+            return true;
+        } finally {
+            NodeEvents.end(batch);
+        }
     }
 
     @Override
@@ -154,6 +241,46 @@ public boolean isEmpty() {
         return value == null ? this.storeDefault(defSupplier.get()) : value;
     }
 
+    @Override
+    public final int getInt(final int def) {
+        final NodeValue<N, A> value = this.value;
+        if (value instanceof ScalarNodeValue<N, A> scalar) {
+            return scalar.getInt(def, this.options.conversionBus());
+        }
+        final @Nullable Integer converted = this.get0(Integer.class);
+        return converted == null ? def : converted;
+    }
+
+    @Override
+    public final long getLong(final long def) {
+        final NodeValue<N, A> value = this.value;
+        if (value instanceof ScalarNodeValue<N, A> scalar) {
+            return scalar.getLong(def, this.options.conversionBus());
+        }
+        final @Nullable Long converted = this.get0(Long.class);
+        return converted == null ? def : converted;
+    }
+
+    @Override
+    public final double getDouble(final double def) {
+        final NodeValue<N, A> value = this.value;
+        if (value instanceof ScalarNodeValue<N, A> scalar) {
+            return scalar.getDouble(def, this.options.conversionBus());
+        }
+        final @Nullable Double converted = this.get0(Double.class);
+        return converted == null ? def : converted;
+    }
+
+    @Override
+    public final boolean getBoolean(final boolean def) {
+        final NodeValue<N, A> value = this.value;
+        if (value instanceof ScalarNodeValue<N, A> scalar) {
+            return scalar.getBoolean(def, this.options.conversionBus());
+        }
+        final @Nullable Boolean converted = this.get0(Boolean.class);
+        return converted == null ? def : converted;
+    }
+
     private <V> V storeDefault(V defValue) {
         this.set(defValue);
         return defValue;
@@ -166,16 +293,21 @@ private <V> V storeDefault(V defValue) {
         //    throw new SerializationException(this, type, "Raw types are not supported");
         //}
 
-        if (this.value instanceof NullNodeValue) {
+        final NodeValue<N, A> nodeValue = this.value;
+        if (nodeValue instanceof NullNodeValue) {
             return null;
         }
 
-        Object value = this.get();
+        if (nodeValue instanceof ScalarNodeValue<N, A> scalar) {
+            return scalar.getAs(type, this.options.conversionBus());
+        }
+
+        Object value = nodeValue.get();
         if (type.isInstance(value)) {
             return type.cast(value);
         } else {
             try {
-                return this.conversionService.convert(value, type);
+                return this.options.conversionBus().convert(value, type);
             } catch (ConversionException e) {
                 throw new RuntimeException(e);
             }
@@ -192,7 +324,7 @@ private <V> V storeDefault(V defValue) {
 
         // if the new value is null, handle detaching from this nodes parent
         if (newValue == null) {
-            final @Nullable Object key = this.key;
+            final @Nullable Object key = this.key();
             if (this.parent == null || key == null) {
                 this.clear();
             } else {
@@ -209,7 +341,7 @@ private <V> V storeDefault(V defValue) {
             }
 
             try {
-                final Object result = this.conversionService.convertToObject(newValue);
+                final Object result = this.options.conversionBus().convertToObject(newValue);
 
                 this.setRaw(result);
             } catch (ConversionException e) {
@@ -222,57 +354,67 @@ private <V> V storeDefault(V defValue) {
 
     @Override
     public final @NotNull N setRaw(@Nullable Object newValue) {
-        // if the new value is null, handle detaching from this nodes parent
-        if (newValue == null) {
-            final Object key = this.key;
-            if (this.parent == null || key == null) {
-                this.clear();
+        final NodeEvents.@Nullable Batch batch = NodeEvents.begin();
+        try {
+            // if the new value is null, handle detaching from this nodes parent
+            if (newValue == null) {
+                final Object key = this.key();
+                if (this.parent == null || key == null) {
+                    this.clear();
+                } else {
+                    this.parent.removeChild(key);
+                }
             } else {
-                this.parent.removeChild(key);
+                this.insertNewValue(newValue, false);
             }
-        } else {
-            this.insertNewValue(newValue, false);
+        } finally {
+            NodeEvents.end(batch);
         }
 
         return this.self();
     }
 
     @Override
-    public N from(@NotNull Node that) {
-        if (that == this) { // this would be a no-op whoop
-            return this.self();
-        }
+    public final @NotNull N setInt(final int value) {
+        this.insertPrimitive(ScalarNodeValue.KIND_INT, value);
+        return this.self();
+    }
 
-        if (that.isList()) {
-            // handle list
-            this.attachIfNecessary();
-            ListNodeValue<N, A> newList = new ListNodeValue<>(this.implSelf());
-            synchronized (that) {
-                final List<? extends Node> children = that.childrenList();
-                for (int i = 0; i < children.size(); i++) {
-                    final A node = this.createNode(i);
-                    node.attached = true;
-                    node.from(children.get(i));
-                    newList.putChild(i, node);
-                }
+    @Override
+    public final @NotNull N setLong(final long value) {
+        this.insertPrimitive(ScalarNodeValue.KIND_LONG, value);
+        return this.self();
+    }
+
+    @Override
+    public final @NotNull N setDouble(final double value) {
+        this.insertPrimitive(ScalarNodeValue.KIND_DOUBLE, Double.doubleToRawLongBits(value));
+        return this.self();
+    }
+
+    @Override
+    public final @NotNull N setBoolean(final boolean value) {
+        this.insertPrimitive(ScalarNodeValue.KIND_BOOLEAN, value ? 1 : 0);
+        return this.self();
+    }
+
+    @Override
+    public N from(@NotNull Node that) {
+        final NodeEvents.@Nullable Batch batch = NodeEvents.begin();
+        try {
+            if (that == this) { // this would be a no-op whoop
+                return this.self();
             }
-            this.value = newList;
-        } else if (that.isMap()) {
-            // handle map
-            this.attachIfNecessary();
-            final MapNodeValue<N, A> newMap = new MapNodeValue<>(this.implSelf());
-            synchronized (that) {
-                for (final Map.Entry<Object, ? extends Node> entry : that.childrenMap().entrySet()) {
-                    final A node = this.createNode(entry.getKey());
-                    node.attached = true;
-                    node.from(entry.getValue());
-                    newMap.putChild(entry.getKey(), node);
-                }
+
+            if (that.isList() || that.isMap()) {
+                // the copy is built aside and published at once
+                this.replaceValue(NodeCopier.copy(that, this.implSelf()));
+            } else {
+                // handle scalar/null
+                this.setRaw(that.get());
             }
-            this.value = newMap;
-        } else {
-            // handle scalar/null
-            this.setRaw(that.get());
+        } finally {
+            NodeEvents.end(batch);
         }
 
         return this.self();
@@ -280,87 +422,190 @@ public N from(@NotNull Node that) {
 
     @Override
     public N mergeFrom(@NotNull Node other) {
-        // If we are empty, then just directly set our value from the source
-        if ((this.isVirtual() || this.isEmpty()) && !other.isVirtual()) {
-            return this.from(other);
-        }
-
-        if (other.isMap()) {
-            NodeValue<N, A> oldValue;
-            NodeValue<N, A> newValue;
-            synchronized (this) {
-                oldValue = newValue = this.value;
+        final NodeEvents.@Nullable Batch batch = NodeEvents.begin();
+        try {
+            // If we are empty, then just directly set our value from the source
+            if ((this.isVirtual() || this.isEmpty()) && !other.isVirtual()) {
+                return this.from(other);
+            }
 
-                // ensure the current type is applicable.
-                if (!(oldValue instanceof MapNodeValue)) {
-                    if (oldValue instanceof NullNodeValue) {
-                        newValue = new MapNodeValue<>(this.implSelf());
-                    } else {
-                        return this.self();
+            if (other.isMap()) {
+                this.unshareAncestors();
+                NodeValue<N, A> oldValue;
+                NodeValue<N, A> newValue;
+                do {
+                    oldValue = newValue = this.value;
+
+                    // ensure the current type is applicable.
+                    if (!(oldValue instanceof MapNodeValue)) {
+                        if (oldValue instanceof NullNodeValue) {
+                            newValue = new MapNodeValue<>(this.implSelf());
+                        } else {
+                            return this.self();
+                        }
+                    } else if (oldValue.isShared()) {
+                        this.unshareValue();
+                        continue;
                     }
-                }
 
-                // merge values from 'other'
-                for (final Map.Entry<Object, ? extends Node> ent : other.childrenMap().entrySet()) {
-                    A currentChild = newValue.child(ent.getKey());
-                    // Never allow null values to overwrite non-null values
-                    if (currentChild != null && currentChild.get() != null && ent.getValue().get() == null) {
+                    // merge values from 'other'
+                    if (!this.mergeChildren(newValue, newValue == oldValue, other)) {
                         continue;
                     }
+                } while (!this.publish(oldValue, newValue));
+                NodeHasher.invalidate(this);
+                NodeEvents.record(this, NodeChange.Type.SET);
+            } else if (other.isList()) {
+                if (this.isVirtual()) {
+                    this.from(other);
+                }
+            } else if (other.rawScalar() != null) {
+                // otherwise, replace the value of this node, only if currently null
+                this.insertNewValue(other.rawScalar(), true);
+            }
+        } finally {
+            NodeEvents.end(batch);
+        }
 
-                    // create a new child node for the value
-                    final A newChild = this.createNode(ent.getKey());
-                    newChild.attached = true;
-                    newChild.from(ent.getValue());
-                    // replace the existing value, if absent
-                    final @Nullable A existing = newValue.putChildIfAbsent(ent.getKey(), newChild);
-                    // if an existing value was present, attempt to merge the new value into it
-                    if (existing != null) {
-                        existing.mergeFrom(newChild);
-                    }
+        return this.self();
+    }
+
+    // merges into a value that is either fresh or the published value of this node. A published value is only written
+    // while it is still current, false asks the caller to start over with the value that replaced it
+    private boolean mergeChildren(final NodeValue<N, A> value, final boolean published, final Node other) {
+        final @Nullable ForkJoinPool pool = this.options.forkJoinPool();
+        final int threshold = this.options.parallelThreshold();
+        if (pool == null || NodeForkJoin.weight(other, threshold) < threshold) {
+            for (final Map.Entry<Object, ? extends Node> ent : other.childrenMap().entrySet()) {
+                final Object key = this.options.internKey(ent.getKey());
+                A currentChild = value.child(key);
+                // Never allow null values to overwrite non-null values
+                if (currentChild != null && currentChild.get() != null && ent.getValue().get() == null) {
+                    continue;
+                }
+
+                // create a new child node for the value
+                final A newChild = this.createNode(key);
+                newChild.attached = true;
+                newChild.from(ent.getValue());
+                if (!this.mergeChild(value, published, newChild)) {
+                    return false;
                 }
-                this.value = newValue;
             }
-        } else if (other.isList()) {
-            if (this.isVirtual()) {
-                this.from(other);
+            return true;
+        }
+
+        // the new children are copied in parallel, but only merged once the copies are complete
+        final List<Runnable> work = new ArrayList<>();
+        final List<Integer> weights = new ArrayList<>();
+        final List<A> children = new ArrayList<>();
+        for (final Map.Entry<Object, ? extends Node> ent : other.childrenMap().entrySet()) {
+            final Object key = this.options.internKey(ent.getKey());
+            final @Nullable A currentChild = value.child(key);
+            final Node source = ent.getValue();
+            if (currentChild != null && currentChild.get() != null && source.get() == null) {
+                continue;
             }
-        } else if (other.rawScalar() != null) {
-            // otherwise, replace the value of this node, only if currently null
-            this.insertNewValue(other.rawScalar(), true);
+
+            final A newChild = this.createNode(key);
+            newChild.attached = true;
+            children.add(newChild);
+            work.add(() -> newChild.from(source));
+            weights.add(NodeForkJoin.weight(source, threshold));
         }
-        return this.self();
+        NodeForkJoin.invoke(pool, work, weights, threshold);
+        for (final A newChild : children) {
+            if (!this.mergeChild(value, published, newChild)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean mergeChild(final NodeValue<N, A> value, final boolean published, final A newChild) {
+        if (published && this.value != value) {
+            return false;
+        }
+        // replace the existing value, if absent
+        final @Nullable A existing = value.putChildIfAbsent(newChild.key, newChild);
+        // if an existing value was present, attempt to merge the new value into it
+        if (existing != null) {
+            existing.mergeFrom(newChild);
+        }
+        return true;
     }
 
     private void insertNewValue(final Object newValue, final boolean onlyIfNull) {
-        Check.argCondition(newValue instanceof Node, "Cannot set a node as the raw value of another node");
-        this.attachIfNecessary();
+        final NodeEvents.@Nullable Batch batch = NodeEvents.begin();
+        try {
+            Check.argCondition(newValue instanceof Node, "Cannot set a node as the raw value of another node");
+            this.unshareAncestors();
+            this.attachIfNecessary();
 
-        synchronized (this) {
             NodeValue<N, A> oldValue;
             NodeValue<N, A> value;
-            oldValue = value = this.value;
+            do {
+                oldValue = value = this.value;
 
-            if (onlyIfNull && !(oldValue instanceof NullNodeValue)) {
-                return;
-            }
+                if (onlyIfNull && !(oldValue instanceof NullNodeValue)) {
+                    return;
+                }
 
-            // init new config value backing for the new value type if necessary
-            if (newValue instanceof Collection) {
-                if (!(value instanceof ListNodeValue)) {
-                    value = new ListNodeValue<>(this.implSelf());
+                // init new config value backing for the new value type if necessary
+                if (newValue instanceof Collection) {
+                    if (!(value instanceof ListNodeValue)) {
+                        value = new ListNodeValue<>(this.implSelf());
+                    }
+                } else if (newValue instanceof Map) {
+                    if (!(value instanceof MapNodeValue)) {
+                        value = new MapNodeValue<>(this.implSelf());
+                    }
+                } else if (!(value instanceof ScalarNodeValue)) {
+                    value = new ScalarNodeValue<>(this.implSelf());
                 }
-            } else if (newValue instanceof Map) {
-                if (!(value instanceof MapNodeValue)) {
-                    value = new MapNodeValue<>(this.implSelf());
+
+                // a shared value of the same type has to be unshared before it is written to
+                if (value == oldValue && value.isShared()) {
+                    this.unshareValue();
+                    continue;
                 }
-            } else if (!(value instanceof ScalarNodeValue)) {
-                value = new ScalarNodeValue<>(this.implSelf());
+
+                // insert the data into the config value
+                value.set(newValue);
+            } while (!this.publish(oldValue, value));
+            if (value != oldValue) {
+                this.dropValue(oldValue);
             }
+            NodeHasher.invalidate(this);
+            NodeEvents.record(this, NodeChange.Type.SET);
+        } finally {
+            NodeEvents.end(batch);
+        }
+    }
 
-            // insert the data into the config value
-            value.set(newValue);
-            this.value = value;
+    // the scalar counterpart of insertNewValue, storing the value unboxed
+    private void insertPrimitive(final byte kind, final long bits) {
+        final NodeEvents.@Nullable Batch batch = NodeEvents.begin();
+        try {
+            this.unshareAncestors();
+            this.attachIfNecessary();
+
+            NodeValue<N, A> oldValue;
+            NodeValue<N, A> value;
+            do {
+                oldValue = value = this.value;
+                if (!(value instanceof ScalarNodeValue) || value.isShared()) {
+                    value = new ScalarNodeValue<>(this.implSelf());
+                }
+                ((ScalarNodeValue<N, A>) value).setPrimitive(kind, bits);
+            } while (!this.publish(oldValue, value));
+            if (value != oldValue) {
+                this.dropValue(oldValue);
+            }
+            NodeHasher.invalidate(this);
+            NodeEvents.record(this, NodeChange.Type.SET);
+        } finally {
+            NodeEvents.end(batch);
         }
     }
 
@@ -376,19 +621,27 @@ private void insertNewValue(final Object newValue, final boolean onlyIfNull) {
 
     @Override
     public final List<N> childrenList() {
-        NodeValue<N, A> value = this.value;
-        return value instanceof ListNodeValue<N, A> ? ((ListNodeValue<N, A>) value).unwrapped()
-            : Collections.emptyList();
+        return new ChildrenListView<>(this.implSelf());
     }
 
     @Override
     public final Map<Object, N> childrenMap() {
-        NodeValue<N, A> value = this.value;
-        return value instanceof MapNodeValue<N, A> mapValue ? mapValue.unwrapped() : Collections.emptyMap();
+        return new ChildrenMapView<>(this.implSelf());
+    }
+
+    @Override
+    public final void forEachChild(final @NotNull BiConsumer<Object, ? super Node> action) {
+        Check.notNull(action, "action");
+        final NodeValue<N, A> value = this.localValue();
+        if (value instanceof MapNodeValue<N, A> || value instanceof ListNodeValue<N, A>) {
+            for (final A child : value.iterateChildren()) {
+                action.accept(child.key, child.self());
+            }
+        }
     }
 
     protected final A child(final Object key) {
-        A child = this.value.child(key);
+        A child = this.localValue().child(key);
 
         // child doesn't currently exist
         if (child == null) {
@@ -404,6 +657,22 @@ protected final A child(final Object key) {
         return this.copy(null).self();
     }
 
+    @Override
+    public final @NotNull NodeSubscription subscribe(final @NotNull NodeListener listener) {
+        Check.notNull(listener, "listener");
+        return NodeEvents.subscribe(this, listener);
+    }
+
+    final NodeEvents events() {
+        final @Nullable NodeEvents events = this.events;
+        if (events != null) {
+            return events;
+        }
+        final NodeEvents created = new NodeEvents(this.options.listenerExecutor());
+        final @Nullable Object witness = EVENTS.compareAndExchange(this, null, created);
+        return witness == null ? created : (NodeEvents) witness;
+    }
+
     protected final @Nullable A parentEnsureAttached() {
         @Nullable A parent = this.parent;
         if (parent != null && parent.isVirtual()) {
@@ -422,6 +691,14 @@ protected final void attachIfNecessary() {
         }
     }
 
+    final void replaceValue(final NodeValue<N, A> newValue) {
+        this.unshareAncestors();
+        this.attachIfNecessary();
+        this.value = newValue;
+        NodeHasher.invalidate(this);
+        NodeEvents.record(this, NodeChange.Type.SET);
+    }
+
     protected final A attachChildIfAbsent(final A child) {
         return this.attachChild(child, true);
     }
@@ -441,19 +718,27 @@ private A attachChild(final A child, final boolean onlyIfAbsent) {
             throw new IllegalStateException("Child " + child + " path is not a direct parent of me (), cannot attach");
         }
 
+        // inserting into a list assigns the index of unallocated children, so the key is read once for all attempts
+        final @Nullable Object childKey = child.key;
+        if (childKey == null) {
+            throw new IllegalArgumentException("Cannot attach a child with null key");
+        }
+
         // update the value
+        this.unshareAncestors();
         NodeValue<N, A> oldValue;
         NodeValue<N, A> newValue;
-        synchronized (this) {
+        @Nullable A replaced = null;
+        do {
             newValue = oldValue = this.value;
 
             if (oldValue instanceof MapNodeValue) {
-                if (child.key == ListNodeValue.UNALLOCATED_IDX) {
+                if (childKey == ListNodeValue.UNALLOCATED_IDX) {
                     newValue = new ListNodeValue<>(this.implSelf());
                 }
             } else {
                 // if the existing value isn't a map, we need to update it's type
-                if (child.key instanceof Integer || child.key == ListNodeValue.UNALLOCATED_IDX) {
+                if (childKey instanceof Integer || childKey == ListNodeValue.UNALLOCATED_IDX) {
                     // if child.key is an integer, we can infer that the type of this node should be a list
                     if (oldValue instanceof NullNodeValue) {
                         // if the oldValue was null, we can just replace it with an empty list
@@ -469,27 +754,34 @@ private A attachChild(final A child, final boolean onlyIfAbsent) {
                 }
             }
 
-            /// now the value has been updated to an appropriate type, we can insert the value
-            final @Nullable Object childKey = child.key;
-            if (childKey == null) {
-                throw new IllegalArgumentException("Cannot attach a child with null key");
+            // a shared value of the same type has to be unshared before it is written to
+            if (newValue == oldValue && newValue.isShared()) {
+                this.unshareValue();
+                continue;
             }
 
+            /// now the value has been updated to an appropriate type, we can insert the value
             if (onlyIfAbsent) {
                 final @Nullable A oldChild = newValue.putChildIfAbsent(childKey, child);
                 if (oldChild != null) {
-                    return oldChild;
+                    // a child found in a replaced value is stale
+                    if (newValue != oldValue || this.value == oldValue) {
+                        return oldChild;
+                    }
+                    continue;
                 }
             } else {
-                this.detachIfNonNull(newValue.putChild(childKey, child));
+                replaced = newValue.putChild(childKey, child);
             }
-            this.value = newValue;
-        }
+        } while (!this.publish(oldValue, newValue));
+        this.detachIfNonNull(replaced);
 
         if (newValue != oldValue) {
-            oldValue.clear();
+            this.dropValue(oldValue);
         }
         child.attached = true;
+        NodeHasher.invalidate(this);
+        NodeEvents.record(child, NodeChange.Type.ATTACH);
         return child;
     }
 
@@ -502,10 +794,122 @@ private A attachChild(final A child, final boolean onlyIfAbsent) {
     }
 
     protected final void clear() {
-        synchronized (this) {
-            NodeValue<N, A> oldValue = this.value;
-            this.value = NullNodeValue.instance();
-            oldValue.clear();
+        this.unshareAncestors();
+        this.dropValue(this.swapValue(NullNodeValue.instance()));
+        NodeHasher.invalidate(this);
+        NodeEvents.record(this, NodeChange.Type.REMOVE);
+    }
+
+    // a fresh value is published if the value it was derived from is still current, a value written in place is
+    // only kept if it was not replaced in the meantime. Either way, false asks the caller to start over.
+    private boolean publish(final NodeValue<N, A> oldValue, final NodeValue<N, A> newValue) {
+        if (newValue == oldValue) {
+            return this.value == oldValue;
+        }
+        return VALUE.compareAndSet(this, oldValue, newValue);
+    }
+
+    // clears a value this node no longer holds, detaching its children
+    private void dropValue(final NodeValue<N, A> value) {
+        final @Nullable NodeValue<N, A> released = release(this.implSelf(), value);
+        if (released != null) {
+            released.clear();
+        }
+    }
+
+    // the value holding the live children of a replaced value, null if there are none. A shared value still backs
+    // other nodes, so its holder first moves its live children out of it, which keeps writes through them away from
+    // the copies.
+    private static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> @Nullable NodeValue<N, A> release(
+        final A node, final NodeValue<N, A> value) {
+        if (!value.isShared()) {
+            return value;
+        }
+        return value.holder() == node ? value.unshare(node) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    final NodeValue<N, A> swapValue(final NodeValue<N, A> newValue) {
+        return (NodeValue<N, A>) VALUE.getAndSet(this, newValue);
+    }
+
+    // detaches the children of a replaced value and clears the ones still owned by it, walking the whole subtree
+    // with an explicit stack. The values taken from the children are no longer reachable, so they are not cleared.
+    static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> void detachChildren(final A holder,
+        final Iterable<A> children) {
+        final Deque<A> holders = new ArrayDeque<>();
+        final Deque<Iterator<A>> pending = new ArrayDeque<>();
+        holders.push(holder);
+        pending.push(children.iterator());
+        while (!pending.isEmpty()) {
+            final Iterator<A> iterator = pending.peek();
+            if (!iterator.hasNext()) {
+                pending.pop();
+                holders.pop();
+                continue;
+            }
+
+            final A child = iterator.next();
+            child.attached = false;
+            if (child.parent != holders.peek()) {
+                continue;
+            }
+            final @Nullable NodeValue<N, A> oldValue = release(child, child.swapValue(NullNodeValue.instance()));
+            NodeHasher.forget(child);
+            if (oldValue != null) {
+                holders.push(child);
+                pending.push(oldValue.iterateChildren().iterator());
+            }
+        }
+    }
+
+    final NodeValue<N, A> sharedValue() {
+        final NodeValue<N, A> value = this.value;
+        value.share();
+        return value;
+    }
+
+    // a value shared by a copy still holds the children of the node it was copied from,
+    // so the copy has to unshare it before any of these children are handed out
+    final NodeValue<N, A> localValue() {
+        final NodeValue<N, A> value = this.value;
+        if (value.isShared() && value.holder() != this) {
+            return this.unshareValue();
+        }
+        return value;
+    }
+
+    // the holder of a shared value moves its live children out of it only once, every later attempt gets the same
+    // value, so a lost publish is simply retried
+    final NodeValue<N, A> unshareValue() {
+        while (true) {
+            final NodeValue<N, A> value = this.value;
+            if (!value.isShared()) {
+                return value;
+            }
+            final NodeValue<N, A> unshared = value.unshare(this.implSelf());
+            if (VALUE.compareAndSet(this, value, unshared)) {
+                // the unshared children start without a cached hash, so the hashes above them are dropped
+                NodeHasher.invalidate(this);
+                return unshared;
+            }
+        }
+    }
+
+    // writing below a shared value would leak into every node sharing it, so the shared values above this node are
+    // unshared from the top down. Unsharing a level marks the values of its children as shared in turn, before it is
+    // published, so a level seen unshared never hides a shared level below it.
+    private void unshareAncestors() {
+        if (!this.options.copyOnWrite() || this.parent == null) {
+            return;
+        }
+
+        final Deque<A> path = new ArrayDeque<>();
+        for (A node = this.parent; node != null; node = node.parent) {
+            path.push(node);
+        }
+        for (final A node : path) {
+            node.unshareValue();
         }
     }
 
@@ -519,12 +923,68 @@ public boolean equals(final Object o) {
             return false;
         }
 
-        return Objects.equals(this.key, that.key) && Objects.equals(this.value, that.value);
+        if (!Objects.equals(this.key(), that.key())) {
+            return false;
+        }
+        // differing hashes reject at once, and are cached for the next comparison of either tree
+        return NodeHasher.hash(this) == NodeHasher.hash(that) && valuesEqual(this.value, that.value);
+    }
+
+    // compares two values pair by pair with an explicit stack, so deep trees cannot overflow the call stack
+    private static boolean valuesEqual(final NodeValue<?, ?> left, final NodeValue<?, ?> right) {
+        final Deque<NodeValue<?, ?>> pending = new ArrayDeque<>();
+        pending.push(left);
+        pending.push(right);
+        while (!pending.isEmpty()) {
+            final NodeValue<?, ?> b = pending.pop();
+            final NodeValue<?, ?> a = pending.pop();
+            if (a == b) {
+                continue;
+            }
+
+            if (a instanceof MapNodeValue<?, ?> map) {
+                if (!(b instanceof MapNodeValue<?, ?> otherMap)) {
+                    return false;
+                }
+                final Map<Object, ? extends AbstractNode<?, ?>> children = map.children();
+                final Map<Object, ? extends AbstractNode<?, ?>> otherChildren = otherMap.children();
+                if (children.size() != otherChildren.size()) {
+                    return false;
+                }
+                for (final Map.Entry<Object, ? extends AbstractNode<?, ?>> entry : children.entrySet()) {
+                    final @Nullable AbstractNode<?, ?> other = otherChildren.get(entry.getKey());
+                    if (other == null || NodeHasher.differ(entry.getValue(), other)) {
+                        return false;
+                    }
+                    pending.push(entry.getValue().value);
+                    pending.push(other.value);
+                }
+            } else if (a instanceof ListNodeValue<?, ?> list) {
+                if (!(b instanceof ListNodeValue<?, ?> otherList)) {
+                    return false;
+                }
+                final List<? extends AbstractNode<?, ?>> children = list.children();
+                final List<? extends AbstractNode<?, ?>> otherChildren = otherList.children();
+                if (children.size() != otherChildren.size()) {
+                    return false;
+                }
+                for (int i = 0; i < children.size(); i++) {
+                    if (NodeHasher.differ(children.get(i), otherChildren.get(i))) {
+                        return false;
+                    }
+                    pending.push(children.get(i).value);
+                    pending.push(otherChildren.get(i).value);
+                }
+            } else if (a.getClass() != b.getClass() || !Objects.equals(a.get(), b.get())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.key) ^ Objects.hashCode(this.value);
+        return 31 * Objects.hashCode(this.key()) + Long.hashCode(NodeHasher.hash(this));
     }
 
     protected abstract A createNode(Object path);
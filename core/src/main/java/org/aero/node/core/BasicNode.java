@@ -14,11 +14,19 @@
  * limitations under the License.
  */
 
-package org.aero.node.core;import org.jetbrains.annotations.NotNull;
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
 
 public sealed interface BasicNode extends ScopedNode<BasicNode> permits BasicNodeImpl {
 
     static @NotNull BasicNode create() {
-        return new BasicNodeImpl(null, null, false);
+        return BasicNode.create(NodeOptions.defaults());
+    }
+
+    static @NotNull BasicNode create(@NotNull NodeOptions options) {
+        Check.notNull(options, "options");
+        return new BasicNodeImpl(null, null, options);
     }
 }
@@ -14,12 +14,14 @@
  * limitations under the License.
  */
 
-package org.aero.node.core;import org.jetbrains.annotations.Nullable;
+package org.aero.node.core;
+
+import org.jetbrains.annotations.Nullable;
 
 final class BasicNodeImpl extends AbstractNode<BasicNode, BasicNodeImpl> implements BasicNode {
 
-    BasicNodeImpl(@Nullable Object key, @Nullable BasicNodeImpl parent, boolean bool) {
-        super(key, parent, bool);
+    BasicNodeImpl(@Nullable Object key, @Nullable BasicNodeImpl parent, NodeOptions options) {
+        super(key, parent, options);
     }
 
     BasicNodeImpl(@Nullable BasicNodeImpl parent, BasicNodeImpl copyOf) {
@@ -28,7 +30,7 @@ final class BasicNodeImpl extends AbstractNode<BasicNode, BasicNodeImpl> impleme
 
     @Override
     protected BasicNodeImpl createNode(Object path) {
-        return new BasicNodeImpl(path, this, false);
+        return new BasicNodeImpl(path, this, this.options());
     }
 
     @Override
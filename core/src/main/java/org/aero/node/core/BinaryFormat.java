@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+final class BinaryFormat {
+
+    static final int MAGIC = 0x414E4F44; // "ANOD"
+    static final byte VERSION = 1;
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_FALSE = 1;
+    static final byte TAG_TRUE = 2;
+    static final byte TAG_INT = 3;
+    static final byte TAG_LONG = 4;
+    static final byte TAG_FLOAT = 5;
+    static final byte TAG_DOUBLE = 6;
+    static final byte TAG_STRING = 7;
+    static final byte TAG_BIG_INTEGER = 8;
+    static final byte TAG_BIG_DECIMAL = 9;
+    static final byte TAG_MAP = 10;
+    static final byte TAG_LIST = 11;
+
+    private BinaryFormat() {
+
+    }
+
+    static void writeHeader(final ByteSink sink, final int magic, final byte version) {
+        sink.writeInt(magic);
+        sink.writeByte(version);
+    }
+
+    static void checkHeader(final ByteBuffer buffer, final int magic, final byte version) throws IOException {
+        if (buffer.remaining() < 5 || buffer.getInt() != magic) {
+            throw new IOException("Not a binary node document");
+        }
+        final byte actual = buffer.get();
+        if (actual != version) {
+            throw new IOException("Unsupported binary node document version " + actual);
+        }
+    }
+
+    // keys are scalars limited to strings, ints and longs, anything else is stored as its string form
+    static Object normalizeKey(final @Nullable Object key) {
+        return key instanceof Integer || key instanceof Long ? key : String.valueOf(key);
+    }
+
+    static void writeKey(final ByteSink sink, final Object key) {
+        if (key instanceof Integer value) {
+            sink.writeByte(TAG_INT);
+            sink.writeVarint(zigZag(value));
+        } else if (key instanceof Long value) {
+            sink.writeByte(TAG_LONG);
+            sink.writeVarlong(zigZag(value));
+        } else {
+            sink.writeByte(TAG_STRING);
+            sink.writeString(key.toString());
+        }
+    }
+
+    static Object readKey(final ByteBuffer buffer) throws IOException {
+        final byte tag = buffer.get();
+        return switch (tag) {
+            case TAG_INT -> unZigZag(readVarint(buffer));
+            case TAG_LONG -> unZigZag(readVarlong(buffer));
+            case TAG_STRING -> readString(buffer);
+            default -> throw new IOException("Unknown key tag " + tag);
+        };
+    }
+
+    // other scalars are stored as their string form
+    static void writeScalar(final ByteSink sink, final Object value) {
+        if (value instanceof Boolean bool) {
+            sink.writeByte(bool ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            sink.writeByte(TAG_INT);
+            sink.writeVarint(zigZag(((Number) value).intValue()));
+        } else if (value instanceof Long number) {
+            sink.writeByte(TAG_LONG);
+            sink.writeVarlong(zigZag(number));
+        } else if (value instanceof Float number) {
+            sink.writeByte(TAG_FLOAT);
+            sink.writeInt(Float.floatToRawIntBits(number));
+        } else if (value instanceof Double number) {
+            sink.writeByte(TAG_DOUBLE);
+            sink.writeLong(Double.doubleToRawLongBits(number));
+        } else if (value instanceof BigInteger number) {
+            sink.writeByte(TAG_BIG_INTEGER);
+            sink.writeBytes(number.toByteArray());
+        } else if (value instanceof BigDecimal number) {
+            sink.writeByte(TAG_BIG_DECIMAL);
+            sink.writeVarint(zigZag(number.scale()));
+            sink.writeBytes(number.unscaledValue().toByteArray());
+        } else {
+            sink.writeByte(TAG_STRING);
+            sink.writeString(value.toString());
+        }
+    }
+
+    static Object readScalar(final ByteBuffer buffer, final byte tag) throws IOException {
+        return switch (tag) {
+            case TAG_FALSE -> Boolean.FALSE;
+            case TAG_TRUE -> Boolean.TRUE;
+            case TAG_INT -> unZigZag(readVarint(buffer));
+            case TAG_LONG -> unZigZag(readVarlong(buffer));
+            case TAG_FLOAT -> Float.intBitsToFloat(buffer.getInt());
+            case TAG_DOUBLE -> Double.longBitsToDouble(buffer.getLong());
+            case TAG_STRING -> readString(buffer);
+            case TAG_BIG_INTEGER -> new BigInteger(readBytes(buffer));
+            case TAG_BIG_DECIMAL -> {
+                final int scale = unZigZag(readVarint(buffer));
+                yield new BigDecimal(new BigInteger(readBytes(buffer)), scale);
+            }
+            default -> throw new IOException("Unknown value tag " + tag);
+        };
+    }
+
+    static int readVarint(final ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static long readVarlong(final ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int readLength(final ByteBuffer buffer) throws IOException {
+        final int length = readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Length " + length + " exceeds the remaining " + buffer.remaining() + " bytes");
+        }
+        return length;
+    }
+
+    static String readString(final ByteBuffer buffer) throws IOException {
+        final int length = readLength(buffer);
+        if (buffer.hasArray()) {
+            final int start = buffer.arrayOffset() + buffer.position();
+            buffer.position(buffer.position() + length);
+            return new String(buffer.array(), start, length, StandardCharsets.UTF_8);
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // the two's complement bytes of a BigInteger, which always holds at least one byte
+    static byte[] readBytes(final ByteBuffer buffer) throws IOException {
+        final int length = readLength(buffer);
+        if (length == 0) {
+            throw new IOException("Empty number payload");
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    static int zigZag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int unZigZag(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes node trees into a compact binary format and decodes them back.
+ *
+ * <p>A document starts with a header and a table of every distinct map key, followed by the root value. Values are
+ * a tag byte and a payload: integers are zigzag varints, strings and lists are length prefixed and map entries refer
+ * to their key by its index in the table.</p>
+ */
+public final class BinaryNodeCodec {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private BinaryNodeCodec() {
+
+    }
+
+    public static @NotNull ByteBuffer encode(@NotNull Node node) {
+        final Encoder encoder = new Encoder();
+        encoder.encode(node);
+        final ByteBuffer buffer = ByteBuffer.allocate(encoder.header.size() + encoder.body.size());
+        encoder.header.writeTo(buffer);
+        encoder.body.writeTo(buffer);
+        return buffer.flip();
+    }
+
+    public static void encode(@NotNull Node node, @NotNull WritableByteChannel channel) throws IOException {
+        Check.notNull(channel, "channel");
+        final Encoder encoder = new Encoder();
+        encoder.encode(node);
+        encoder.header.writeTo(channel);
+        encoder.body.writeTo(channel);
+    }
+
+    public static @NotNull BasicNode decode(@NotNull ByteBuffer buffer) throws IOException {
+        return decode(buffer, BasicNode.create());
+    }
+
+    public static @NotNull BasicNode decode(@NotNull FileChannel channel) throws IOException {
+        return decode(channel, BasicNode.create());
+    }
+
+    public static <N extends Node> @NotNull N decode(@NotNull FileChannel channel, @NotNull N target)
+        throws IOException {
+        Check.notNull(channel, "channel");
+        final long position = channel.position();
+        final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+        decode(buffer, target);
+        channel.position(position + buffer.position());
+        return target;
+    }
+
+    /**
+     * Replaces the value of the target with the document in the buffer, starting at its position. The buffer is left
+     * positioned after the document. The target is left untouched if the document is malformed.
+     *
+     * @param buffer the encoded document
+     * @param target the node receiving the document, created by this library
+     * @param <N>    the type of the target
+     * @return the target
+     * @throws IOException if the document is malformed or truncated
+     */
+    public static <N extends Node> @NotNull N decode(@NotNull ByteBuffer buffer, @NotNull N target)
+        throws IOException {
+        Check.notNull(buffer, "buffer");
+        Check.notNull(target, "target");
+        final NodeBuilder<N> builder = NodeBuilder.into(target);
+        try {
+            decodeInto(buffer, builder, target.options());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary node document", e);
+        }
+        return target;
+    }
+
+    private static void decodeInto(final ByteBuffer buffer, final NodeBuilder<?> builder, final NodeOptions options)
+        throws IOException {
+        BinaryFormat.checkHeader(buffer, BinaryFormat.MAGIC, BinaryFormat.VERSION);
+        final Object[] keys = new Object[BinaryFormat.readLength(buffer)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = options.internKey(BinaryFormat.readKey(buffer));
+        }
+
+        // the number of children still to read of every open container
+        int[] remaining = new int[16];
+        values:
+        while (true) {
+            final byte tag = buffer.get();
+            switch (tag) {
+                case BinaryFormat.TAG_MAP, BinaryFormat.TAG_LIST -> {
+                    // the containers are sized up front, so they never grow while decoding
+                    final int size = BinaryFormat.readLength(buffer);
+                    if (tag == BinaryFormat.TAG_MAP) {
+                        builder.beginMap(size);
+                    } else {
+                        builder.beginList(size);
+                    }
+                    final int depth = builder.depth();
+                    if (depth > remaining.length) {
+                        remaining = Arrays.copyOf(remaining, remaining.length << 1);
+                    }
+                    remaining[depth - 1] = size;
+                }
+                case BinaryFormat.TAG_NULL -> builder.value((Object) null);
+                case BinaryFormat.TAG_FALSE -> builder.value(false);
+                case BinaryFormat.TAG_TRUE -> builder.value(true);
+                case BinaryFormat.TAG_INT -> builder.value(BinaryFormat.unZigZag(BinaryFormat.readVarint(buffer)));
+                case BinaryFormat.TAG_LONG -> builder.value(BinaryFormat.unZigZag(BinaryFormat.readVarlong(buffer)));
+                case BinaryFormat.TAG_DOUBLE -> builder.value(Double.longBitsToDouble(buffer.getLong()));
+                default -> builder.value(BinaryFormat.readScalar(buffer, tag));
+            }
+
+            // continue with the next child of the innermost unfinished container
+            while (true) {
+                final int depth = builder.depth();
+                if (depth == 0) {
+                    break values;
+                }
+                if (remaining[depth - 1] == 0) {
+                    builder.end();
+                    continue;
+                }
+                remaining[depth - 1]--;
+
+                if (builder.inMap()) {
+                    final int index = BinaryFormat.readVarint(buffer);
+                    if (index < 0 || index >= keys.length) {
+                        throw new IOException("Key index " + index + " is out of bounds");
+                    }
+                    builder.key(keys[index], true);
+                }
+                continue values;
+            }
+        }
+        builder.build();
+    }
+
+    private static final class Encoder {
+
+        private final Map<Object, Integer> keyIndexes = new HashMap<>();
+        private final List<Object> keys = new ArrayList<>();
+        private final ByteSink header = new ByteSink(INITIAL_CAPACITY);
+        private final ByteSink body = new ByteSink(INITIAL_CAPACITY);
+
+        private void encode(final Node root) {
+            Check.notNull(root, "node");
+            final Deque<EncodeFrame> stack = new ArrayDeque<>();
+            this.writeValue(root, stack);
+            while (!stack.isEmpty()) {
+                final EncodeFrame frame = stack.peek();
+                if (frame.index == frame.children.length) {
+                    stack.pop();
+                    continue;
+                }
+                final Node child = frame.children[frame.index++];
+                if (frame.map) {
+                    this.body.writeVarint(this.keyIndex(child.key()));
+                }
+                this.writeValue(child, stack);
+            }
+
+            BinaryFormat.writeHeader(this.header, BinaryFormat.MAGIC, BinaryFormat.VERSION);
+            this.header.writeVarint(this.keys.size());
+            for (final Object key : this.keys) {
+                BinaryFormat.writeKey(this.header, key);
+            }
+        }
+
+        private void writeValue(final Node node, final Deque<EncodeFrame> stack) {
+            final Iterable<? extends Node> children;
+            final boolean map;
+            if (node instanceof AbstractNode<?, ?> abstractNode) {
+                // read the value once, so a concurrent replacement cannot mix two values
+                final NodeValue<?, ?> value = abstractNode.value;
+                if (value instanceof MapNodeValue<?, ?> || value instanceof ListNodeValue<?, ?>) {
+                    children = value.iterateChildren();
+                    map = value instanceof MapNodeValue<?, ?>;
+                } else {
+                    this.writeScalar(value.get());
+                    return;
+                }
+            } else if (node.isMap()) {
+                children = node.childrenMap().values();
+                map = true;
+            } else if (node.isList()) {
+                children = node.childrenList();
+                map = false;
+            } else {
+                this.writeScalar(node.get());
+                return;
+            }
+
+            // the count has to match the entries written, so take a snapshot of the children first
+            final List<Node> snapshot = new ArrayList<>();
+            for (final Node child : children) {
+                snapshot.add(child);
+            }
+            this.body.writeByte(map ? BinaryFormat.TAG_MAP : BinaryFormat.TAG_LIST);
+            this.body.writeVarint(snapshot.size());
+            if (!snapshot.isEmpty()) {
+                stack.push(new EncodeFrame(snapshot.toArray(new Node[0]), map));
+            }
+        }
+
+        private void writeScalar(final @Nullable Object value) {
+            if (value == null) {
+                this.body.writeByte(BinaryFormat.TAG_NULL);
+            } else {
+                BinaryFormat.writeScalar(this.body, value);
+            }
+        }
+
+        private int keyIndex(final @Nullable Object key) {
+            final Object normalized = BinaryFormat.normalizeKey(key);
+            final Integer existing = this.keyIndexes.get(normalized);
+            if (existing != null) {
+                return existing;
+            }
+            final int index = this.keys.size();
+            this.keys.add(normalized);
+            this.keyIndexes.put(normalized, index);
+            return index;
+        }
+    }
+
+    private static final class EncodeFrame {
+
+        private final Node[] children;
+        private final boolean map;
+        private int index;
+
+        private EncodeFrame(final Node[] children, final boolean map) {
+            this.children = children;
+            this.map = map;
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+final class ByteSink {
+
+    private byte[] bytes;
+    private int size;
+
+    ByteSink(final int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void writeByte(final int value) {
+        this.ensureCapacity(1);
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    void writeInt(final int value) {
+        this.ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            this.bytes[this.size++] = (byte) (value >>> shift);
+        }
+    }
+
+    void writeLong(final long value) {
+        this.ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            this.bytes[this.size++] = (byte) (value >>> shift);
+        }
+    }
+
+    void writeVarint(int value) {
+        this.ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            this.bytes[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    void writeVarlong(long value) {
+        this.ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            this.bytes[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    void writeBytes(final byte[] value) {
+        this.writeVarint(value.length);
+        this.ensureCapacity(value.length);
+        System.arraycopy(value, 0, this.bytes, this.size, value.length);
+        this.size += value.length;
+    }
+
+    void writeString(final String value) {
+        this.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void clear() {
+        this.size = 0;
+    }
+
+    void writeTo(final ByteSink sink) {
+        sink.ensureCapacity(this.size);
+        System.arraycopy(this.bytes, 0, sink.bytes, sink.size, this.size);
+        sink.size += this.size;
+    }
+
+    void writeTo(final ByteBuffer buffer) {
+        buffer.put(this.bytes, 0, this.size);
+    }
+
+    void writeTo(final WritableByteChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(this.bytes, 0, this.size);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    void writeTo(final FileChannel channel, final long position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(this.bytes, 0, this.size);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private void ensureCapacity(final int additional) {
+        if (this.size + additional > this.bytes.length) {
+            this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + additional));
+        }
+    }
+
+}
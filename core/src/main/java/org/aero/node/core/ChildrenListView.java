@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+// a read-only view of the list children of a node, following the node through every change of its value
+final class ChildrenListView<N extends ScopedNode<N>, A extends AbstractNode<N, A>> extends AbstractList<N>
+    implements RandomAccess {
+
+    private final A node;
+
+    ChildrenListView(final A node) {
+        this.node = node;
+    }
+
+    private List<A> children() {
+        final NodeValue<N, A> value = this.node.localValue();
+        return value instanceof ListNodeValue<N, A> list ? list.children() : Collections.emptyList();
+    }
+
+    @Override
+    public N get(final int index) {
+        return this.children().get(index).self();
+    }
+
+    @Override
+    public int size() {
+        return this.children().size();
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+// a read-only view of the map children of a node, following the node through every change of its value
+final class ChildrenMapView<N extends ScopedNode<N>, A extends AbstractNode<N, A>> extends AbstractMap<Object, N> {
+
+    private final A node;
+
+    ChildrenMapView(final A node) {
+        this.node = node;
+    }
+
+    private Map<Object, A> children() {
+        final NodeValue<N, A> value = this.node.localValue();
+        return value instanceof MapNodeValue<N, A> map ? map.children() : Collections.emptyMap();
+    }
+
+    @Override
+    public int size() {
+        return this.children().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.children().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key != null && this.children().containsKey(key);
+    }
+
+    @Override
+    public @Nullable N get(final Object key) {
+        if (key == null) {
+            return null;
+        }
+        final @Nullable A child = this.children().get(key);
+        return child == null ? null : child.self();
+    }
+
+    @Override
+    public @NotNull Collection<N> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<N> iterator() {
+                final Iterator<A> children = ChildrenMapView.this.children().values().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return children.hasNext();
+                    }
+
+                    @Override
+                    public N next() {
+                        return children.next().self();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ChildrenMapView.this.size();
+            }
+        };
+    }
+
+    @Override
+    public @NotNull Set<Entry<Object, N>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Object, N>> iterator() {
+                final Iterator<Entry<Object, A>> children = ChildrenMapView.this.children().entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return children.hasNext();
+                    }
+
+                    @Override
+                    public Entry<Object, N> next() {
+                        final Entry<Object, A> entry = children.next();
+                        return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().self());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ChildrenMapView.this.size();
+            }
+        };
+    }
+
+}
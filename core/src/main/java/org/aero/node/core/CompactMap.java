@@ -0,0 +1,285 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// a thread-safe map keeping small sizes in a flat array of alternating keys and values. The array is replaced on every
+// write with a compare-and-set, so neither readers nor writers lock and readers iterate a snapshot. Past the threshold
+// the entries move into a ConcurrentHashMap for good.
+final class CompactMap<K, V> extends AbstractMap<K, V> {
+
+    static final int THRESHOLD = 8;
+    private static final Object[] EMPTY = new Object[0];
+    private static final VarHandle TABLE;
+
+    static {
+        try {
+            TABLE = MethodHandles.lookup().findVarHandle(CompactMap.class, "table", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // either an Object[] or a ConcurrentHashMap
+    private volatile Object table;
+
+    CompactMap() {
+        this.table = EMPTY;
+    }
+
+    CompactMap(int expectedSize) {
+        this.table = expectedSize > THRESHOLD ? new ConcurrentHashMap<>(expectedSize) : EMPTY;
+    }
+
+    // takes over the first length slots of alternating keys and values, which must not be shared with anyone else.
+    // The last value of a duplicate key wins.
+    @SuppressWarnings("unchecked")
+    CompactMap(Object[] entries, int length) {
+        if (length >> 1 > THRESHOLD) {
+            final ConcurrentHashMap<K, V> large = new ConcurrentHashMap<>(length >> 1);
+            for (int i = 0; i < length; i += 2) {
+                large.put((K) entries[i], (V) entries[i + 1]);
+            }
+            this.table = large;
+            return;
+        }
+
+        // duplicates are folded in place, the kept entries never overtake the ones still to be read
+        int size = 0;
+        for (int i = 0; i < length; i += 2) {
+            final int index = indexOf(entries, size, entries[i]);
+            if (index >= 0) {
+                entries[index + 1] = entries[i + 1];
+            } else {
+                entries[size] = entries[i];
+                entries[size + 1] = entries[i + 1];
+                size += 2;
+            }
+        }
+        this.table = size == entries.length ? entries : Arrays.copyOf(entries, size);
+    }
+
+    @Override
+    public int size() {
+        final Object table = this.table;
+        return table instanceof Object[] entries ? entries.length >> 1 : this.large(table).size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(final Object key) {
+        final Object table = this.table;
+        if (table instanceof Object[] entries) {
+            final int index = indexOf(entries, key);
+            return index < 0 ? null : (V) entries[index + 1];
+        }
+        return this.large(table).get(key);
+    }
+
+    @Override
+    public @Nullable V put(final K key, final V value) {
+        return this.put(key, value, false);
+    }
+
+    @Override
+    public @Nullable V putIfAbsent(final K key, final V value) {
+        return this.put(key, value, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable V put(final K key, final V value, final boolean onlyIfAbsent) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        while (true) {
+            final Object table = this.table;
+            if (!(table instanceof Object[] entries)) {
+                return onlyIfAbsent ? this.large(table).putIfAbsent(key, value) : this.large(table).put(key, value);
+            }
+
+            final int index = indexOf(entries, key);
+            final Object replacement;
+            if (index >= 0) {
+                if (onlyIfAbsent) {
+                    return (V) entries[index + 1];
+                }
+                final Object[] copy = entries.clone();
+                copy[index + 1] = value;
+                replacement = copy;
+            } else if (entries.length >> 1 >= THRESHOLD) {
+                final ConcurrentHashMap<K, V> large = new ConcurrentHashMap<>(THRESHOLD * 2);
+                for (int i = 0; i < entries.length; i += 2) {
+                    large.put((K) entries[i], (V) entries[i + 1]);
+                }
+                large.put(key, value);
+                replacement = large;
+            } else {
+                final Object[] copy = Arrays.copyOf(entries, entries.length + 2);
+                copy[entries.length] = key;
+                copy[entries.length + 1] = value;
+                replacement = copy;
+            }
+
+            // a lost race only wasted the copy, the next attempt starts from the current table
+            if (TABLE.compareAndSet(this, table, replacement)) {
+                return index >= 0 ? (V) entries[index + 1] : null;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(final Object key) {
+        while (true) {
+            final Object table = this.table;
+            if (!(table instanceof Object[] entries)) {
+                return this.large(table).remove(key);
+            }
+
+            final int index = indexOf(entries, key);
+            if (index < 0) {
+                return null;
+            }
+            final Object[] copy = new Object[entries.length - 2];
+            System.arraycopy(entries, 0, copy, 0, index);
+            System.arraycopy(entries, index + 2, copy, index, entries.length - index - 2);
+            if (TABLE.compareAndSet(this, table, copy)) {
+                return (V) entries[index + 1];
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.table = EMPTY;
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        final Object table = this.table;
+        if (!(table instanceof Object[] entries)) {
+            return this.large(table).values();
+        }
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ArrayIterator<>(entries, 1);
+            }
+
+            @Override
+            public int size() {
+                return entries.length >> 1;
+            }
+        };
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        final Object table = this.table;
+        if (!(table instanceof Object[] entries)) {
+            return this.large(table).entrySet();
+        }
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new ArrayIterator<>(entries, -1);
+            }
+
+            @Override
+            public int size() {
+                return entries.length >> 1;
+            }
+        };
+    }
+
+    private static int indexOf(final Object[] entries, final Object key) {
+        return indexOf(entries, entries.length, key);
+    }
+
+    private static int indexOf(final Object[] entries, final int length, final Object key) {
+        for (int i = 0; i < length; i += 2) {
+            final Object candidate = entries[i];
+            if (candidate == key || candidate.equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentHashMap<K, V> large(final Object table) {
+        return (ConcurrentHashMap<K, V>) table;
+    }
+
+    // iterates the values of a snapshot if the slot is 1, otherwise its entries
+    private static final class ArrayIterator<T> implements Iterator<T> {
+
+        private final Object[] entries;
+        private final int slot;
+        private int index;
+
+        private ArrayIterator(final Object[] entries, final int slot) {
+            this.entries = entries;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.index < this.entries.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (this.index >= this.entries.length) {
+                throw new NoSuchElementException();
+            }
+            final int index = this.index;
+            this.index += 2;
+            if (this.slot == 1) {
+                return (T) this.entries[index + 1];
+            }
+            return (T) new SimpleImmutableEntry<>(this.entries[index], this.entries[index + 1]);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A deeply read-only copy of a tree. Every field is final and children are kept in flat arrays, so reads neither
+ * lock nor read volatile fields, and existing children are returned without allocating. Mutators throw an
+ * {@link UnsupportedOperationException}.
+ */
+public sealed interface FrozenNode extends ScopedNode<FrozenNode> permits FrozenNodeImpl {
+
+    static @NotNull FrozenNode of(@NotNull Node source) {
+        Check.notNull(source, "source");
+        return FrozenNodeImpl.freeze(source);
+    }
+
+    @NotNull FrozenNode root();
+
+    @Override
+    @Nullable FrozenNode parent();
+
+    @Override
+    @NotNull FrozenNode node(@NotNull Iterable<?> path);
+
+    @Override
+    default @NotNull FrozenNode node(Object @NotNull ... path) {
+        return this.node(Arrays.asList(path));
+    }
+
+    @Override
+    default @NotNull FrozenNode node(@NotNull NodePath path) {
+        return this.node((Iterable<?>) path);
+    }
+
+    @Override
+    @NotNull FrozenNode appendChild();
+
+    @Override
+    @NotNull FrozenNode set(Object value);
+
+    @Override
+    @NotNull FrozenNode setRaw(Object value);
+
+    @Override
+    @NotNull FrozenNode from(@NotNull Node other);
+
+    @Override
+    @NotNull FrozenNode mergeFrom(@NotNull Node other);
+
+    @Override
+    @NotNull FrozenNode copy();
+
+    @Override
+    @NotNull FrozenNode freeze();
+
+    @NotNull BasicNode toBasicNode();
+
+}
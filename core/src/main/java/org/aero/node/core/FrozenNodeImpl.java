@@ -0,0 +1,520 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.aero.conversion.core.exception.ConversionException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// maps keep their keys and children in parallel arrays, past the threshold with an open addressing index on top.
+// Lists only have the children array, scalars neither.
+final class FrozenNodeImpl implements FrozenNode {
+
+    private static final int INDEX_THRESHOLD = 8;
+
+    private final NodeOptions options;
+    private final @Nullable FrozenNodeImpl parent;
+    private final @Nullable Object key;
+    private final boolean virtual;
+    private final @Nullable Object value;
+    private final Object @Nullable [] keys;
+    private final FrozenNodeImpl @Nullable [] children;
+    // slots hold the index of a child plus one, zero marks an empty slot
+    private final int @Nullable [] index;
+
+    private FrozenNodeImpl(NodeOptions options, @Nullable FrozenNodeImpl parent, @Nullable Object key, boolean virtual,
+        @Nullable Object value, Object @Nullable [] keys, FrozenNodeImpl @Nullable [] children) {
+        this.options = options;
+        this.parent = parent;
+        this.key = key;
+        this.virtual = virtual;
+        this.value = value;
+        this.keys = keys;
+        this.children = children;
+        this.index = keys != null && keys.length > INDEX_THRESHOLD ? index(keys) : null;
+    }
+
+    static FrozenNodeImpl freeze(final Node source) {
+        final NodeOptions options = source.options();
+        final Deque<Frame> stack = new ArrayDeque<>();
+        final FrozenNodeImpl root = create(options, null, source.key(), source, stack);
+        while (!stack.isEmpty()) {
+            final Frame frame = stack.peek();
+            if (frame.index == frame.sources.length) {
+                stack.pop();
+                continue;
+            }
+            final int i = frame.index++;
+            final FrozenNodeImpl node = frame.node;
+            final Object key = node.keys != null ? node.keys[i] : i;
+            node.children[i] = create(options, node, key, frame.sources[i], stack);
+        }
+        // the children are stored after their parents were constructed, which the final fields do not cover
+        VarHandle.storeStoreFence();
+        return root;
+    }
+
+    private static FrozenNodeImpl create(final NodeOptions options, final @Nullable FrozenNodeImpl parent,
+        final @Nullable Object key, final Node source, final Deque<Frame> stack) {
+        final Node[] sources;
+        final boolean map;
+        if (source instanceof AbstractNode<?, ?> abstractNode) {
+            // read the value once, so a concurrent replacement cannot mix two values
+            final NodeValue<?, ?> value = abstractNode.value;
+            if (value instanceof MapNodeValue<?, ?> || value instanceof ListNodeValue<?, ?>) {
+                sources = present(value.iterateChildren());
+                map = value instanceof MapNodeValue<?, ?>;
+            } else {
+                return new FrozenNodeImpl(options, parent, key, false, value.get(), null, null);
+            }
+        } else if (source.isMap()) {
+            sources = present(source.childrenMap().values());
+            map = true;
+        } else if (source.isList()) {
+            sources = present(source.childrenList());
+            map = false;
+        } else {
+            return new FrozenNodeImpl(options, parent, key, false, source.get(), null, null);
+        }
+
+        @Nullable Object[] keys = null;
+        if (map) {
+            keys = new Object[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                keys[i] = options.internKey(Objects.requireNonNull(sources[i].key(), "key"));
+            }
+        }
+        final FrozenNodeImpl node = new FrozenNodeImpl(options, parent, key, false, null, keys,
+            new FrozenNodeImpl[sources.length]);
+        if (sources.length > 0) {
+            stack.push(new Frame(node, sources));
+        }
+        return node;
+    }
+
+    // the children that would survive a copy
+    private static Node[] present(final Iterable<? extends Node> children) {
+        final List<Node> present = new ArrayList<>();
+        for (final Node child : children) {
+            if (!NodeCopier.isNull(child)) {
+                present.add(child);
+            }
+        }
+        return present.toArray(new Node[0]);
+    }
+
+    private static int[] index(final Object[] keys) {
+        final int[] index = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+        final int mask = index.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = spread(keys[i].hashCode()) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = i + 1;
+        }
+        return index;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private @Nullable FrozenNodeImpl child(final Object key) {
+        final FrozenNodeImpl[] children = this.children;
+        if (children == null) {
+            return null;
+        }
+        final Object[] keys = this.keys;
+        if (keys == null) {
+            return key instanceof Integer i && i >= 0 && i < children.length ? children[i] : null;
+        }
+
+        final int[] index = this.index;
+        if (index == null) {
+            for (int i = 0; i < keys.length; i++) {
+                final Object candidate = keys[i];
+                if (candidate == key || candidate.equals(key)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        final int mask = index.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = index[slot];
+            if (entry == 0) {
+                return null;
+            }
+            final Object candidate = keys[entry - 1];
+            if (candidate == key || candidate.equals(key)) {
+                return children[entry - 1];
+            }
+        }
+    }
+
+    @Override
+    public @Nullable Object key() {
+        return this.key;
+    }
+
+    @Override
+    public @NotNull NodeOptions options() {
+        return this.options;
+    }
+
+    @Override
+    public @Nullable FrozenNode parent() {
+        return this.parent;
+    }
+
+    @Override
+    public @NotNull FrozenNode root() {
+        FrozenNodeImpl root = this;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return root;
+    }
+
+    @Override
+    public @NotNull FrozenNode node(@NotNull Iterable<?> path) {
+        FrozenNodeImpl pointer = this;
+        for (final Object element : path) {
+            Check.notNull(element, "element in path");
+            final @Nullable FrozenNodeImpl child = pointer.child(element);
+            pointer = child != null
+                ? child
+                : new FrozenNodeImpl(this.options, pointer, element, true, null, null, null);
+        }
+        return pointer;
+    }
+
+    @Override
+    public boolean hasChild(@NotNull Iterable<?> path) {
+        @Nullable FrozenNodeImpl pointer = this;
+        for (final Object element : path) {
+            Check.notNull(element, "element in path");
+            pointer = pointer.child(element);
+            if (pointer == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public @NotNull FrozenNode appendChild() {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeChild(@NotNull Object key) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    @Override
+    public boolean isNull() {
+        return this.value == null && this.children == null;
+    }
+
+    @Override
+    public boolean isList() {
+        return this.children != null && this.keys == null;
+    }
+
+    @Override
+    public boolean isMap() {
+        return this.keys != null;
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:UnnecessaryParentheses")
+    public boolean isEmpty() {
+        if (this.children != null) {
+            return this.children.length == 0;
+        }
+        final Object value = this.value;
+        return value == null
+            || (value instanceof String && ((String) value).isEmpty())
+            || (value instanceof Collection<?> && ((Collection<?>) value).isEmpty());
+    }
+
+    @Override
+    public @Nullable Object get() {
+        final FrozenNodeImpl[] children = this.children;
+        if (children == null) {
+            return this.value;
+        }
+        final Object[] keys = this.keys;
+        if (keys == null) {
+            final List<Object> list = new ArrayList<>(children.length);
+            for (final FrozenNodeImpl child : children) {
+                list.add(child.get());
+            }
+            return list;
+        }
+        final Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], children[i].get());
+        }
+        return map;
+    }
+
+    @Override
+    public <T> @Nullable T getAs(@NotNull Class<T> type) {
+        Check.notNull(type, "type");
+        final Object value = this.get();
+        if (value == null) {
+            return null;
+        }
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        try {
+            return this.options.conversionBus().convert(value, type);
+        } catch (ConversionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // a frozen node can not store the default, it is only returned
+    @Override
+    public <T> @Nullable T getAsOrDefault(@NotNull Class<T> type, T def) {
+        final T value = this.getAs(type);
+        return value == null ? def : value;
+    }
+
+    @Override
+    public <T> @Nullable T getAsOrDefault(@NotNull Class<T> type, @NotNull Supplier<T> defSupplier) {
+        final T value = this.getAs(type);
+        return value == null ? defSupplier.get() : value;
+    }
+
+    @Override
+    public int getInt(int def) {
+        return this.value instanceof Integer value ? value : FrozenNode.super.getInt(def);
+    }
+
+    @Override
+    public long getLong(long def) {
+        return this.value instanceof Long value ? value : FrozenNode.super.getLong(def);
+    }
+
+    @Override
+    public double getDouble(double def) {
+        return this.value instanceof Double value ? value : FrozenNode.super.getDouble(def);
+    }
+
+    @Override
+    public boolean getBoolean(boolean def) {
+        return this.value instanceof Boolean value ? value : FrozenNode.super.getBoolean(def);
+    }
+
+    @Override
+    public @NotNull FrozenNode set(@Nullable Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public @NotNull FrozenNode setRaw(@Nullable Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public @NotNull FrozenNode from(@NotNull Node other) {
+        throw readOnly();
+    }
+
+    @Override
+    public @NotNull FrozenNode mergeFrom(@NotNull Node other) {
+        throw readOnly();
+    }
+
+    @Override
+    public @Nullable Object rawScalar() {
+        return this.children == null ? this.value : null;
+    }
+
+    @Override
+    public List<FrozenNode> childrenList() {
+        if (!this.isList()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(this.children));
+    }
+
+    @Override
+    public Map<Object, FrozenNode> childrenMap() {
+        if (!this.isMap()) {
+            return Collections.emptyMap();
+        }
+        return new ChildrenMap(this);
+    }
+
+    @Override
+    public void forEachChild(@NotNull BiConsumer<Object, ? super Node> action) {
+        final FrozenNodeImpl[] children = this.children;
+        if (children == null) {
+            return;
+        }
+        final Object[] keys = this.keys;
+        for (int i = 0; i < children.length; i++) {
+            action.accept(keys != null ? keys[i] : i, children[i]);
+        }
+    }
+
+    @Override
+    public @NotNull FrozenNode copy() {
+        return this;
+    }
+
+    @Override
+    public @NotNull FrozenNode freeze() {
+        return this;
+    }
+
+    @Override
+    public @NotNull BasicNode toBasicNode() {
+        final BasicNode node = BasicNode.create(this.options);
+        node.from(this);
+        return node;
+    }
+
+    @Override
+    public FrozenNode self() {
+        return this;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Frozen nodes are read-only");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof FrozenNodeImpl that)) {
+            return false;
+        }
+
+        return Objects.equals(this.key, that.key) && Objects.equals(this.get(), that.get());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.key) ^ Objects.hashCode(this.get());
+    }
+
+    private static final class Frame {
+
+        private final FrozenNodeImpl node;
+        private final Node[] sources;
+        private int index;
+
+        private Frame(final FrozenNodeImpl node, final Node[] sources) {
+            this.node = node;
+            this.sources = sources;
+        }
+    }
+
+    // a read-only view over the arrays of a map node, lookups go through its index
+    private static final class ChildrenMap extends AbstractMap<Object, FrozenNode> {
+
+        private final FrozenNodeImpl node;
+
+        private ChildrenMap(final FrozenNodeImpl node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable FrozenNode get(final Object key) {
+            return key == null ? null : this.node.child(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return this.get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return this.node.keys.length;
+        }
+
+        @Override
+        public @NotNull Set<Entry<Object, FrozenNode>> entrySet() {
+            final Object[] keys = this.node.keys;
+            final FrozenNodeImpl[] children = this.node.children;
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Object, FrozenNode>> iterator() {
+                    return new Iterator<>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.index < keys.length;
+                        }
+
+                        @Override
+                        public Entry<Object, FrozenNode> next() {
+                            if (this.index >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            final int index = this.index++;
+                            return new SimpleImmutableEntry<>(keys[index], children[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * A persistent hash array mapped trie, every update returns a new map sharing all untouched branches with this one.
+ */
+final class HashTrieMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final HashTrieMap EMPTY = new HashTrieMap<>(null, 0);
+
+    private final @Nullable TrieNode root;
+    private final int size;
+    // the cached hash of the tree, 0 until NodeHasher computed it
+    volatile long hash;
+
+    private HashTrieMap(@Nullable TrieNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> HashTrieMap<K, V> empty() {
+        return EMPTY;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable V get(Object key) {
+        final TrieNode root = this.root;
+        return root == null ? null : (V) root.find(0, hash(key), key);
+    }
+
+    boolean containsKey(Object key) {
+        return this.get(key) != null;
+    }
+
+    HashTrieMap<K, V> with(K key, V value) {
+        final TrieNode root = this.root == null ? BitmapNode.EMPTY : this.root;
+        final boolean[] added = new boolean[1];
+        final TrieNode newRoot = root.with(0, hash(key), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new HashTrieMap<>(newRoot, added[0] ? this.size + 1 : this.size);
+    }
+
+    HashTrieMap<K, V> without(Object key) {
+        final TrieNode root = this.root;
+        if (root == null) {
+            return this;
+        }
+        final TrieNode newRoot = root.without(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new HashTrieMap<>(newRoot, this.size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        final TrieNode root = this.root;
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<K, V>> iterator() {
+        final Object[] entries = new Object[this.size * 2];
+        final int[] index = new int[1];
+        this.forEach((key, value) -> {
+            entries[index[0]++] = key;
+            entries[index[0]++] = value;
+        });
+        return new Iterator<>() {
+
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return this.position < entries.length;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final K key = (K) entries[this.position++];
+                final V value = (V) entries[this.position++];
+                return new AbstractMap.SimpleImmutableEntry<>(key, value);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof HashTrieMap<?, ?> that) || this.size != that.size) {
+            return false;
+        }
+
+        for (final Map.Entry<K, V> entry : this) {
+            if (!Objects.equals(entry.getValue(), that.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        final int[] hash = new int[1];
+        this.forEach((key, value) -> hash[0] += Objects.hashCode(key) ^ Objects.hashCode(value));
+        return hash[0];
+    }
+
+    private static int hash(Object key) {
+        final int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private interface TrieNode {
+
+        @Nullable Object find(int shift, int hash, Object key);
+
+        TrieNode with(int shift, int hash, Object key, Object value, boolean[] added);
+
+        @Nullable TrieNode without(int shift, int hash, Object key);
+
+        void forEach(BiConsumer<Object, Object> action);
+
+    }
+
+    // entries are stored as key/value pairs, a null key marks the value as a sub node
+    private static final class BitmapNode implements TrieNode {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(this.bitmap & (bit - 1));
+        }
+
+        @Override
+        public @Nullable Object find(int shift, int hash, Object key) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((this.bitmap & bit) == 0) {
+                return null;
+            }
+            final int index = this.index(bit);
+            final Object entryKey = this.array[2 * index];
+            final Object entryValue = this.array[2 * index + 1];
+            if (entryKey == null) {
+                return ((TrieNode) entryValue).find(shift + BITS, hash, key);
+            }
+            return key.equals(entryKey) ? entryValue : null;
+        }
+
+        @Override
+        public TrieNode with(int shift, int hash, Object key, Object value, boolean[] added) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            final int index = this.index(bit);
+            if ((this.bitmap & bit) == 0) {
+                final Object[] array = new Object[this.array.length + 2];
+                System.arraycopy(this.array, 0, array, 0, 2 * index);
+                array[2 * index] = key;
+                array[2 * index + 1] = value;
+                System.arraycopy(this.array, 2 * index, array, 2 * (index + 1), this.array.length - 2 * index);
+                added[0] = true;
+                return new BitmapNode(this.bitmap | bit, array);
+            }
+
+            final Object entryKey = this.array[2 * index];
+            final Object entryValue = this.array[2 * index + 1];
+            if (entryKey == null) {
+                final TrieNode node = ((TrieNode) entryValue).with(shift + BITS, hash, key, value, added);
+                return node == entryValue ? this : this.replace(2 * index + 1, node);
+            }
+            if (key.equals(entryKey)) {
+                return entryValue == value ? this : this.replace(2 * index + 1, value);
+            }
+
+            added[0] = true;
+            final TrieNode node = createNode(shift + BITS, entryKey, entryValue, hash, key, value);
+            final Object[] array = this.array.clone();
+            array[2 * index] = null;
+            array[2 * index + 1] = node;
+            return new BitmapNode(this.bitmap, array);
+        }
+
+        @Override
+        public @Nullable TrieNode without(int shift, int hash, Object key) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((this.bitmap & bit) == 0) {
+                return this;
+            }
+            final int index = this.index(bit);
+            final Object entryKey = this.array[2 * index];
+            final Object entryValue = this.array[2 * index + 1];
+            if (entryKey == null) {
+                final TrieNode node = ((TrieNode) entryValue).without(shift + BITS, hash, key);
+                if (node == entryValue) {
+                    return this;
+                }
+                if (node != null) {
+                    return this.replace(2 * index + 1, node);
+                }
+            } else if (!key.equals(entryKey)) {
+                return this;
+            }
+
+            if (this.bitmap == bit) {
+                return null;
+            }
+            final Object[] array = new Object[this.array.length - 2];
+            System.arraycopy(this.array, 0, array, 0, 2 * index);
+            System.arraycopy(this.array, 2 * (index + 1), array, 2 * index, array.length - 2 * index);
+            return new BitmapNode(this.bitmap ^ bit, array);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < this.array.length; i += 2) {
+                final Object key = this.array[i];
+                if (key == null) {
+                    ((TrieNode) this.array[i + 1]).forEach(action);
+                } else {
+                    action.accept(key, this.array[i + 1]);
+                }
+            }
+        }
+
+        private BitmapNode replace(int position, Object value) {
+            final Object[] array = this.array.clone();
+            array[position] = value;
+            return new BitmapNode(this.bitmap, array);
+        }
+
+        private static TrieNode createNode(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            final int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+            }
+            final boolean[] added = new boolean[1];
+            return EMPTY
+                .with(shift, hash1, key1, value1, added)
+                .with(shift, hash2, key2, value2, added);
+        }
+    }
+
+    private static final class CollisionNode implements TrieNode {
+
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < this.array.length; i += 2) {
+                if (key.equals(this.array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public @Nullable Object find(int shift, int hash, Object key) {
+            final int index = this.indexOf(key);
+            return index < 0 ? null : this.array[index + 1];
+        }
+
+        @Override
+        public TrieNode with(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // nest this node into a bitmap node and let it place the new entry
+                final int bit = 1 << ((this.hash >>> shift) & MASK);
+                return new BitmapNode(bit, new Object[] {null, this}).with(shift, hash, key, value, added);
+            }
+            final int index = this.indexOf(key);
+            if (index >= 0) {
+                if (this.array[index + 1] == value) {
+                    return this;
+                }
+                final Object[] array = this.array.clone();
+                array[index + 1] = value;
+                return new CollisionNode(this.hash, array);
+            }
+            added[0] = true;
+            final Object[] array = Arrays.copyOf(this.array, this.array.length + 2);
+            array[this.array.length] = key;
+            array[this.array.length + 1] = value;
+            return new CollisionNode(this.hash, array);
+        }
+
+        @Override
+        public @Nullable TrieNode without(int shift, int hash, Object key) {
+            final int index = this.indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            if (this.array.length == 2) {
+                return null;
+            }
+            final Object[] array = new Object[this.array.length - 2];
+            System.arraycopy(this.array, 0, array, 0, index);
+            System.arraycopy(this.array, index + 2, array, index, array.length - index);
+            return new CollisionNode(this.hash, array);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < this.array.length; i += 2) {
+                action.accept(this.array[i], this.array[i + 1]);
+            }
+        }
+    }
+
+}
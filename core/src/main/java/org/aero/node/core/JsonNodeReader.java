@@ -0,0 +1,329 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads JSON documents straight into node trees, without building an intermediate document in memory.
+ */
+public final class JsonNodeReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder builder = new StringBuilder();
+    private int position;
+    private int limit;
+    private long offset;
+
+    private JsonNodeReader(final Reader reader) {
+        this.reader = reader;
+    }
+
+    public static @NotNull BasicNode read(@NotNull Reader reader) throws IOException {
+        return read(reader, BasicNode.create());
+    }
+
+    public static @NotNull BasicNode read(@NotNull InputStream input) throws IOException {
+        return read(input, BasicNode.create());
+    }
+
+    public static @NotNull BasicNode read(@NotNull ReadableByteChannel channel) throws IOException {
+        return read(channel, BasicNode.create());
+    }
+
+    public static <N extends Node> @NotNull N read(@NotNull InputStream input, @NotNull N target) throws IOException {
+        Check.notNull(input, "input");
+        return read(new InputStreamReader(input, StandardCharsets.UTF_8), target);
+    }
+
+    public static <N extends Node> @NotNull N read(@NotNull ReadableByteChannel channel, @NotNull N target)
+        throws IOException {
+        Check.notNull(channel, "channel");
+        return read(Channels.newReader(channel, StandardCharsets.UTF_8), target);
+    }
+
+    /**
+     * Replaces the value of the target with the document read from the reader. The target is left untouched if the
+     * document is malformed, which is reported as an {@link IOException} carrying the offending character offset. The
+     * reader is not closed.
+     *
+     * @param reader the source of the document
+     * @param target the node receiving the document, created by this library
+     * @param <N>    the type of the target
+     * @return the target
+     * @throws IOException if the reader fails or the document is malformed
+     */
+    public static <N extends Node> @NotNull N read(@NotNull Reader reader, @NotNull N target) throws IOException {
+        Check.notNull(reader, "reader");
+        final NodeBuilder<N> builder = NodeBuilder.into(target);
+        new JsonNodeReader(reader).readInto(builder);
+        return builder.build();
+    }
+
+    private void readInto(final NodeBuilder<?> builder) throws IOException {
+        values:
+        while (true) {
+            int c = this.nextNonWhitespace();
+            switch (c) {
+                case '{' -> {
+                    builder.beginMap();
+                    c = this.nextNonWhitespace();
+                    if (c != '}') {
+                        this.readMemberName(builder, c);
+                        continue;
+                    }
+                    builder.end();
+                }
+                case '[' -> {
+                    builder.beginList();
+                    c = this.nextNonWhitespace();
+                    if (c != ']') {
+                        if (c == -1) {
+                            throw this.syntaxError("Unexpected end of input, expected a value");
+                        }
+                        this.position--;
+                        continue;
+                    }
+                    builder.end();
+                }
+                case '"' -> builder.value(this.readString());
+                case 't' -> {
+                    this.expectLiteral("true");
+                    builder.value(true);
+                }
+                case 'f' -> {
+                    this.expectLiteral("false");
+                    builder.value(false);
+                }
+                case 'n' -> {
+                    this.expectLiteral("null");
+                    builder.value((Object) null);
+                }
+                default -> {
+                    if (c != '-' && (c < '0' || c > '9')) {
+                        throw this.unexpected(c, "a value");
+                    }
+                    this.readNumber(builder, c);
+                }
+            }
+
+            // the value is complete, continue with the enclosing container
+            while (true) {
+                c = this.nextNonWhitespace();
+                if (builder.depth() == 0) {
+                    if (c != -1) {
+                        throw this.unexpected(c, "the end of input");
+                    }
+                    break values;
+                }
+                final boolean map = builder.inMap();
+                if (c == ',') {
+                    if (map) {
+                        this.readMemberName(builder, this.nextNonWhitespace());
+                    }
+                    continue values;
+                }
+                if (c != (map ? '}' : ']')) {
+                    throw this.unexpected(c, map ? "',' or '}'" : "',' or ']'");
+                }
+                builder.end();
+            }
+        }
+    }
+
+    private void readMemberName(final NodeBuilder<?> builder, final int c) throws IOException {
+        if (c != '"') {
+            throw this.unexpected(c, "a member name");
+        }
+        builder.key(this.readString());
+        final int separator = this.nextNonWhitespace();
+        if (separator != ':') {
+            throw this.unexpected(separator, "':'");
+        }
+    }
+
+    private int read() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            return -1;
+        }
+        return this.buffer[this.position++];
+    }
+
+    private boolean fill() throws IOException {
+        this.offset += this.limit;
+        this.position = 0;
+        int read;
+        do {
+            read = this.reader.read(this.buffer, 0, this.buffer.length);
+        } while (read == 0);
+        this.limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            while (this.position < this.limit) {
+                final char c = this.buffer[this.position++];
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                    return c;
+                }
+            }
+            if (!this.fill()) {
+                return -1;
+            }
+        }
+    }
+
+    private void expectLiteral(final String literal) throws IOException {
+        for (int i = 1; i < literal.length(); i++) {
+            final int c = this.read();
+            if (c != literal.charAt(i)) {
+                throw this.unexpected(c, "'" + literal + "'");
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        final StringBuilder builder = this.builder;
+        builder.setLength(0);
+        while (true) {
+            // copy unescaped runs in one go
+            final int start = this.position;
+            int end = start;
+            while (end < this.limit) {
+                final char c = this.buffer[end];
+                if (c == '"' || c == '\\' || c < 0x20) {
+                    break;
+                }
+                end++;
+            }
+            builder.append(this.buffer, start, end - start);
+            this.position = end;
+
+            final int c = this.read();
+            if (c == '"') {
+                return builder.toString();
+            } else if (c == '\\') {
+                builder.append(this.readEscape());
+            } else if (c == -1) {
+                throw this.syntaxError("Unterminated string");
+            } else if (c < 0x20) {
+                throw this.syntaxError("Unescaped control character in string");
+            } else {
+                // the buffer ran dry in the middle of an unescaped run
+                builder.append((char) c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        final int c = this.read();
+        return switch (c) {
+            case '"', '\\', '/' -> (char) c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int digit = Character.digit(this.read(), 16);
+                    if (digit < 0) {
+                        throw this.syntaxError("Malformed unicode escape");
+                    }
+                    code = (code << 4) | digit;
+                }
+                yield (char) code;
+            }
+            default -> throw this.unexpected(c, "an escape character");
+        };
+    }
+
+    private void readNumber(final NodeBuilder<?> target, final int first) throws IOException {
+        final StringBuilder builder = this.builder;
+        builder.setLength(0);
+        builder.append((char) first);
+        boolean integral = true;
+        while (true) {
+            if (this.position == this.limit && !this.fill()) {
+                break;
+            }
+            final char c = this.buffer[this.position];
+            if (c >= '0' && c <= '9' || c == '-') {
+                builder.append(c);
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+') {
+                integral = false;
+                builder.append(c);
+            } else {
+                break;
+            }
+            this.position++;
+        }
+
+        final String number = builder.toString();
+        try {
+            if (!integral) {
+                target.value(Double.parseDouble(number));
+                return;
+            }
+            // at most 18 digits always fit in a long
+            if (number.length() <= 18) {
+                final long value = Long.parseLong(number);
+                if (value == (int) value) {
+                    target.value((int) value);
+                } else {
+                    target.value(value);
+                }
+                return;
+            }
+            final BigInteger value = new BigInteger(number);
+            if (value.bitLength() < Long.SIZE) {
+                target.value(value.longValue());
+            } else {
+                target.value(value);
+            }
+        } catch (NumberFormatException e) {
+            throw this.syntaxError("Malformed number '" + number + "'");
+        }
+    }
+
+    private IOException unexpected(final int c, final String expected) {
+        if (c == -1) {
+            return this.syntaxError("Unexpected end of input, expected " + expected);
+        }
+        return this.syntaxError("Unexpected character '" + (char) c + "', expected " + expected);
+    }
+
+    private IOException syntaxError(final String message) {
+        return new IOException(message + " at offset " + (this.offset + this.position - 1));
+    }
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Writes node trees as JSON by walking their children, without materializing the tree into maps and lists first.
+ */
+public final class JsonNodeWriter {
+
+    private static final JsonNodeWriter COMPACT = new JsonNodeWriter(0);
+    private static final JsonNodeWriter PRETTY = new JsonNodeWriter(2);
+
+    private final int indent;
+
+    private JsonNodeWriter(final int indent) {
+        this.indent = indent;
+    }
+
+    public static @NotNull JsonNodeWriter compact() {
+        return COMPACT;
+    }
+
+    public static @NotNull JsonNodeWriter pretty() {
+        return PRETTY;
+    }
+
+    public static @NotNull JsonNodeWriter pretty(int indent) {
+        Check.argCondition(indent < 1, "The indent must be positive");
+        return indent == PRETTY.indent ? PRETTY : new JsonNodeWriter(indent);
+    }
+
+    /**
+     * Writes the node to the writer, which is flushed but not closed. Scalars that are neither strings, numbers nor
+     * booleans are written as their string form, as are non-finite floating point numbers.
+     *
+     * @param node   the node to write
+     * @param writer the target of the document
+     * @throws IOException if the writer fails
+     */
+    public void write(@NotNull Node node, @NotNull Writer writer) throws IOException {
+        Check.notNull(node, "node");
+        Check.notNull(writer, "writer");
+        new Output(writer, this.indent).write(node);
+    }
+
+    public void write(@NotNull Node node, @NotNull OutputStream output) throws IOException {
+        Check.notNull(output, "output");
+        this.write(node, new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    }
+
+    public void write(@NotNull Node node, @NotNull WritableByteChannel channel) throws IOException {
+        Check.notNull(channel, "channel");
+        this.write(node, Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+
+    public @NotNull String writeToString(@NotNull Node node) {
+        final StringWriter writer = new StringWriter();
+        try {
+            this.write(node, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private static final class Output {
+
+        private static final int BUFFER_SIZE = 8192;
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final Writer writer;
+        private final int indent;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private int position;
+
+        private Output(final Writer writer, final int indent) {
+            this.writer = writer;
+            this.indent = indent;
+        }
+
+        private void write(final Node root) throws IOException {
+            this.writeValue(root);
+            while (!this.stack.isEmpty()) {
+                final Frame frame = this.stack.peek();
+                if (!frame.children.hasNext()) {
+                    this.stack.pop();
+                    this.newLine();
+                    this.append(frame.map ? '}' : ']');
+                    continue;
+                }
+
+                final Node child = frame.children.next();
+                if (frame.first) {
+                    frame.first = false;
+                } else {
+                    this.append(',');
+                }
+                this.newLine();
+                if (frame.map) {
+                    this.writeString(String.valueOf(child.key()));
+                    this.append(':');
+                    if (this.indent > 0) {
+                        this.append(' ');
+                    }
+                }
+                this.writeValue(child);
+            }
+            this.flush();
+            this.writer.flush();
+        }
+
+        private void writeValue(final Node node) throws IOException {
+            if (node instanceof AbstractNode<?, ?> abstractNode) {
+                // read the value once, so a concurrent replacement cannot mix two values
+                final NodeValue<?, ?> value = abstractNode.value;
+                if (value instanceof MapNodeValue<?, ?> map) {
+                    this.open(map.iterateChildren().iterator(), true);
+                } else if (value instanceof ListNodeValue<?, ?> list) {
+                    this.open(list.iterateChildren().iterator(), false);
+                } else {
+                    this.writeScalar(value.get());
+                }
+            } else if (node.isMap()) {
+                this.open(node.childrenMap().values().iterator(), true);
+            } else if (node.isList()) {
+                this.open(node.childrenList().iterator(), false);
+            } else {
+                this.writeScalar(node.get());
+            }
+        }
+
+        private void open(final Iterator<? extends Node> children, final boolean map) throws IOException {
+            this.append(map ? '{' : '[');
+            if (children.hasNext()) {
+                this.stack.push(new Frame(children, map));
+            } else {
+                this.append(map ? '}' : ']');
+            }
+        }
+
+        private void writeScalar(final @Nullable Object value) throws IOException {
+            if (value == null) {
+                this.append("null");
+            } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+                this.append(value.toString());
+            } else if (value instanceof Double || value instanceof Float) {
+                final double number = ((Number) value).doubleValue();
+                if (Double.isFinite(number)) {
+                    this.append(value.toString());
+                } else {
+                    this.writeString(value.toString());
+                }
+            } else if (value instanceof Number) {
+                this.append(value.toString());
+            } else {
+                this.writeString(value.toString());
+            }
+        }
+
+        private void writeString(final String value) throws IOException {
+            this.append('"');
+            int start = 0;
+            final int length = value.length();
+            for (int i = 0; i < length; i++) {
+                final char c = value.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    continue;
+                }
+                this.append(value, start, i);
+                start = i + 1;
+                switch (c) {
+                    case '"' -> this.append("\\\"");
+                    case '\\' -> this.append("\\\\");
+                    case '\n' -> this.append("\\n");
+                    case '\r' -> this.append("\\r");
+                    case '\t' -> this.append("\\t");
+                    case '\b' -> this.append("\\b");
+                    case '\f' -> this.append("\\f");
+                    default -> {
+                        this.append("\\u00");
+                        this.append(HEX[c >> 4]);
+                        this.append(HEX[c & 0xF]);
+                    }
+                }
+            }
+            this.append(value, start, length);
+            this.append('"');
+        }
+
+        private void newLine() throws IOException {
+            if (this.indent == 0) {
+                return;
+            }
+            this.append('\n');
+            for (int i = this.stack.size() * this.indent; i > 0; i--) {
+                this.append(' ');
+            }
+        }
+
+        private void append(final char c) throws IOException {
+            if (this.position == this.buffer.length) {
+                this.flush();
+            }
+            this.buffer[this.position++] = c;
+        }
+
+        private void append(final String value) throws IOException {
+            this.append(value, 0, value.length());
+        }
+
+        private void append(final String value, int start, final int end) throws IOException {
+            while (start < end) {
+                if (this.position == this.buffer.length) {
+                    this.flush();
+                }
+                final int count = Math.min(end - start, this.buffer.length - this.position);
+                value.getChars(start, start + count, this.buffer, this.position);
+                this.position += count;
+                start += count;
+            }
+        }
+
+        private void flush() throws IOException {
+            this.writer.write(this.buffer, 0, this.position);
+            this.position = 0;
+        }
+    }
+
+    private static final class Frame {
+
+        private final Iterator<? extends Node> children;
+        private final boolean map;
+        private boolean first = true;
+
+        private Frame(final Iterator<? extends Node> children, final boolean map) {
+            this.children = children;
+            this.map = map;
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe pool of canonical map keys. Trees sharing a pool through their {@link NodeOptions} store one instance
+ * per distinct key, which also lets map lookups succeed on the identity check. The pool only grows, so it suits trees
+ * with a bounded key vocabulary.
+ */
+public final class KeyPool {
+
+    private final ConcurrentHashMap<Object, Object> keys = new ConcurrentHashMap<>();
+
+    private KeyPool() {
+
+    }
+
+    public static @NotNull KeyPool create() {
+        return new KeyPool();
+    }
+
+    public @NotNull Object intern(@NotNull Object key) {
+        Check.notNull(key, "key");
+        final Object existing = this.keys.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        final Object raced = this.keys.putIfAbsent(key, key);
+        return raced == null ? key : raced;
+    }
+
+    public int size() {
+        return this.keys.size();
+    }
+
+}
@@ -18,56 +18,79 @@
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
 
 final class ListNodeValue<N extends ScopedNode<N>, A extends AbstractNode<N, A>> implements NodeValue<N, A> {
 
     static final Object UNALLOCATED_IDX = new Object() {
 
     };
+    private static final int CLEAN = Integer.MAX_VALUE;
+    private static final int DEFAULT_CAPACITY = 10;
+
     private final A holder;
-    private volatile List<A> values;
+    // writers hold the lock and publish a new window, readers only ever see published windows
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Window<A> values;
+    // the first index whose child may still carry an outdated key after a removal
+    private volatile int staleFrom = CLEAN;
+    private volatile boolean shared;
+    // the value the holder took its live children over into, guarded by the lock
+    private @Nullable ListNodeValue<N, A> unshared;
 
     ListNodeValue(A holder) {
         this.holder = holder;
-        this.values = new ArrayList<>();
+        this.values = Window.empty(DEFAULT_CAPACITY);
+    }
+
+    ListNodeValue(A holder, int expectedSize) {
+        this.holder = holder;
+        this.values = Window.empty(expectedSize);
+    }
+
+    // takes over the given children, which must be keyed by their index
+    ListNodeValue(A holder, List<A> values) {
+        this.holder = holder;
+        this.values = new Window<>(values.toArray(), values.size());
+    }
+
+    private ListNodeValue(A holder, Window<A> values) {
+        this.holder = holder;
+        this.values = values;
     }
 
     ListNodeValue(A holder, final @Nullable Object startValue) {
         this.holder = holder;
-        this.values = new ArrayList<>();
+        this.values = Window.empty(DEFAULT_CAPACITY);
         if (startValue != null) {
             A child = holder.createNode(0);
             child.attached = true;
             child.setRaw(startValue);
-            this.values.add(child);
+            this.values = this.values.plus(child);
         }
     }
 
-    private List<A> createList() {
-        return Collections.synchronizedList(new ArrayList<>());
-    }
-
     @Override
     public Object get() {
-        final List<Object> ret = new ArrayList<>(this.values.size());
-        for (A obj : this.values) {
+        final Window<A> values = this.values;
+        final List<Object> ret = new ArrayList<>(values.size());
+        for (A obj : values) {
             ret.add(obj.get()); // unwrap
         }
         return ret;
     }
 
-    public List<N> unwrapped() {
-        final List<N> ret = new ArrayList<>(this.values.size());
-        for (A element : this.values) {
-            ret.add(element.self());
-        }
-        return Collections.unmodifiableList(ret);
+    // the live children, callers must not modify them
+    List<A> children() {
+        return this.values;
     }
 
     @Override
@@ -76,7 +99,7 @@ public void set(@Nullable Object value) {
             value = Collections.singleton(value);
         }
         final Collection<?> valueAsList = (Collection<?>) value;
-        final List<A> newValue = new ArrayList<>(valueAsList.size());
+        Window<A> newValue = Window.empty(valueAsList.size());
 
         int count = 0;
         for (@Nullable Object o : valueAsList) {
@@ -85,16 +108,12 @@ public void set(@Nullable Object value) {
             }
 
             final A child = this.holder.createNode(count);
-            newValue.add(count, child);
+            newValue = newValue.plus(child);
             child.attached = true;
             child.setRaw(o);
             ++count;
         }
-        synchronized (this) {
-            final List<A> oldList = this.values;
-            this.values = newValue;
-            this.detachChildren(oldList);
-        }
+        this.replaceAll(newValue);
     }
 
     @Override
@@ -108,45 +127,70 @@ public void set(@Nullable Object value) {
     }
 
     private @Nullable A putChildInternal(final Object index, final @Nullable A value, final boolean onlyIfAbsent) {
-        if (index == UNALLOCATED_IDX) {
-            if (value != null) { // can't remove an unallocated node
-                // Allocate an index for the newly added node
-                List<A> values = this.values;
-                values.add(value);
-                value.key = values.lastIndexOf(value);
+        this.lock.lock();
+        try {
+            if (index == UNALLOCATED_IDX) {
+                if (value != null) { // can't remove an unallocated node
+                    // Allocate an index for the newly added node
+                    final Window<A> values = this.values;
+                    value.key = values.size();
+                    this.values = values.plus(value);
+                }
+                return null;
+            } else {
+                return this.putChildInternal((int) index, value, onlyIfAbsent);
             }
-            return null;
-        } else {
-            return this.putChildInternal((int) index, value, onlyIfAbsent);
+        } finally {
+            this.lock.unlock();
         }
     }
 
     private @Nullable A putChildInternal(final int index, final @Nullable A value, final boolean onlyIfAbsent) {
-        @Nullable A ret = null;
-        final List<A> values = this.values;
+        final Window<A> values = this.values;
+        final int size = values.size();
         if (value == null) {
-            // only remove actually existing values
-            if (index >= 0 && index < values.size()) {
-                // remove the value
-                ret = values.remove(index);
-                // update indexes for subsequent elements
-                for (int i = index; i < values.size(); ++i) {
-                    values.get(i).key = index;
+            // only remove actually existing values, the keys of subsequent elements are updated lazily
+            if (index >= 0 && index < size) {
+                final A ret = values.get(index);
+                this.values = values.minus(index);
+                if (index < size - 1 && index < this.staleFrom) {
+                    this.staleFrom = index;
                 }
+                return ret;
             }
-        } else {
+            return null;
+        } else if (index >= 0 && index < size) {
             // check if the index is in range
-            if (index >= 0 && index < values.size()) {
-                if (onlyIfAbsent) {
-                    return values.get(index);
-                } else {
-                    return values.set(index, value);
-                }
-            } else {
-                values.add(index, value);
+            if (onlyIfAbsent) {
+                return values.get(index);
             }
+            this.values = values.replace(index, value);
+            return values.get(index);
+        } else if (index == size) {
+            this.values = values.plus(value);
+            return null;
+        } else {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Assigns the current index as key to every child that was moved by a removal since the last call.
+     */
+    void reindex() {
+        if (this.staleFrom == CLEAN) {
+            return;
+        }
+        this.lock.lock();
+        try {
+            final Window<A> values = this.values;
+            for (int i = this.staleFrom; i < values.size(); i++) {
+                values.get(i).key = i;
+            }
+            this.staleFrom = CLEAN;
+        } finally {
+            this.lock.unlock();
         }
-        return ret;
     }
 
     @Override
@@ -161,25 +205,68 @@ public void set(@Nullable Object value) {
         }
          */
 
-        if (value >= this.values.size()) {
+        final Window<A> values = this.values;
+        if (value < 0 || value >= values.size()) {
             return null;
         }
-        return this.values.get(value);
+        return values.get(value);
     }
 
     @Override
     public Iterable<A> iterateChildren() {
-        return Collections.unmodifiableCollection(this.values);
+        this.reindex();
+        return this.values;
     }
 
     @Override
-    public ListNodeValue<N, A> copy(final A holder) {
-        ListNodeValue<N, A> copy = new ListNodeValue<>(holder);
-        for (A obj : this.values) {
-            copy.values.add(obj.copy(holder)); // recursively copy
-        }
+    public A holder() {
+        return this.holder;
+    }
 
-        return copy;
+    @Override
+    public boolean isShared() {
+        return this.shared;
+    }
+
+    @Override
+    public void share() {
+        this.shared = true;
+    }
+
+    @Override
+    public ListNodeValue<N, A> unshare(final A holder) {
+        this.lock.lock();
+        try {
+            if (holder == this.holder && this.unshared != null) {
+                return this.unshared;
+            }
+            final Window<A> values = this.values;
+            final Object[] unshared = new Object[values.size()];
+            final Object @Nullable [] kept = holder == this.holder ? values.toArray() : null;
+            for (int i = 0; i < unshared.length; i++) {
+                final A child = values.get(i);
+                final A fresh = holder.createNode(i);
+                fresh.attached = true;
+                fresh.value = child.sharedValue();
+                if (kept != null) {
+                    // the holder keeps its live children, this value keeps an equal node for the nodes sharing it
+                    child.key = i;
+                    unshared[i] = child;
+                    kept[i] = fresh;
+                } else {
+                    unshared[i] = fresh;
+                }
+            }
+            final ListNodeValue<N, A> result = new ListNodeValue<>(holder, new Window<>(unshared, unshared.length));
+            if (kept != null) {
+                this.values = new Window<>(kept, kept.length);
+                this.staleFrom = CLEAN;
+                this.unshared = result;
+            }
+            return result;
+        } finally {
+            this.lock.unlock();
+        }
     }
 
     @Override
@@ -189,11 +276,20 @@ public boolean isEmpty() {
 
     @Override
     public void clear() {
-        synchronized (this) {
-            final List<A> oldList = this.values;
-            this.values = this.createList();
-            this.detachChildren(oldList);
+        this.replaceAll(Window.empty(DEFAULT_CAPACITY));
+    }
+
+    private void replaceAll(final Window<A> newValue) {
+        final Window<A> oldList;
+        this.lock.lock();
+        try {
+            oldList = this.values;
+            this.values = newValue;
+            this.staleFrom = CLEAN;
+        } finally {
+            this.lock.unlock();
         }
+        this.detachChildren(oldList);
     }
 
     @Override
@@ -202,24 +298,75 @@ public boolean equals(final Object other) {
             return true;
         }
 
-        if (!(other instanceof ListNodeValue that)) {
+        if (!(other instanceof ListNodeValue<?, ?> that)) {
             return false;
         }
 
+        this.reindex();
+        that.reindex();
         return Objects.equals(this.values, that.values);
     }
 
     @Override
     public int hashCode() {
+        this.reindex();
         return this.values.hashCode();
     }
 
     private void detachChildren(List<A> children) {
-        for (A node : children) {
-            node.attached = false;
-            if (Objects.equals(node.parent(), this.holder)) {
-                node.clear();
+        AbstractNode.detachChildren(this.holder, children);
+    }
+
+    // an immutable prefix of a backing array. Appends write past the end of the window and hand out a longer one,
+    // all other changes copy the array, so a published window never changes under a reader
+    private static final class Window<A> extends AbstractList<A> implements RandomAccess {
+
+        private static final Object[] EMPTY = new Object[0];
+
+        private final Object[] elements;
+        private final int size;
+
+        Window(final Object[] elements, final int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        static <A> Window<A> empty(final int capacity) {
+            return new Window<>(capacity == 0 ? EMPTY : new Object[capacity], 0);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public A get(final int index) {
+            Objects.checkIndex(index, this.size);
+            return (A) this.elements[index];
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        Window<A> plus(final A element) {
+            Object[] elements = this.elements;
+            if (this.size == elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(DEFAULT_CAPACITY, this.size + (this.size >> 1)));
             }
+            elements[this.size] = element;
+            return new Window<>(elements, this.size + 1);
+        }
+
+        Window<A> replace(final int index, final A element) {
+            final Object[] elements = Arrays.copyOf(this.elements, this.elements.length);
+            elements[index] = element;
+            return new Window<>(elements, this.size);
+        }
+
+        Window<A> minus(final int index) {
+            final Object[] elements = new Object[this.elements.length];
+            System.arraycopy(this.elements, 0, elements, 0, index);
+            System.arraycopy(this.elements, index + 1, elements, index, this.size - index - 1);
+            return new Window<>(elements, this.size - 1);
         }
     }
 }
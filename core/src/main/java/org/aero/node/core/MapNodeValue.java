@@ -18,24 +18,51 @@
 
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collections;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 final class MapNodeValue<N extends ScopedNode<N>, A extends AbstractNode<N, A>> implements NodeValue<N, A> {
 
+    private static final VarHandle VALUES;
+    private static final VarHandle UNSHARE_LOCK;
+
+    static {
+        try {
+            VALUES = MethodHandles.lookup().findVarHandle(MapNodeValue.class, "values", CompactMap.class);
+            UNSHARE_LOCK = MethodHandles.lookup().findVarHandle(MapNodeValue.class, "unshareLock", ReentrantLock.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final A holder;
-    private volatile Map<Object, A> values;
+    private volatile CompactMap<Object, A> values;
+    // only a shared value is ever unshared, so sharing it creates the lock serializing that
+    private volatile @Nullable ReentrantLock unshareLock;
+    // the value the holder took its live children over into, guarded by the lock
+    private @Nullable MapNodeValue<N, A> unshared;
 
     MapNodeValue(A holder) {
         this.holder = holder;
         this.values = this.createMap();
     }
 
-    private Map<Object, A> createMap() {
-        return new ConcurrentHashMap<>();
+    MapNodeValue(A holder, int expectedSize) {
+        this.holder = holder;
+        this.values = new CompactMap<>(expectedSize);
+    }
+
+    MapNodeValue(A holder, CompactMap<Object, A> values) {
+        this.holder = holder;
+        this.values = values;
+    }
+
+    private CompactMap<Object, A> createMap() {
+        return new CompactMap<>();
     }
 
     @Override
@@ -47,12 +74,9 @@ public Object get() {
         return ret;
     }
 
-    public Map<Object, N> unwrapped() {
-        final Map<Object, N> ret = new LinkedHashMap<>();
-        for (final Map.Entry<Object, A> ent : this.values.entrySet()) {
-            ret.put(ent.getKey(), ent.getValue().self());
-        }
-        return Collections.unmodifiableMap(ret);
+    // the live children, callers must not modify them
+    Map<Object, A> children() {
+        return this.values;
     }
 
     @Override
@@ -60,21 +84,19 @@ public void set(@Nullable Object value) {
         if (!(value instanceof Map)) {
             throw new IllegalArgumentException("Map configuration values can only be set to values of type Map");
         }
-        final Map<Object, A> newValue = createMap();
-        for (final Map.Entry<?, ?> ent : ((Map<?, ?>) value).entrySet()) {
+        final Map<?, ?> valueAsMap = (Map<?, ?>) value;
+        final CompactMap<Object, A> newValue = new CompactMap<>(valueAsMap.size());
+        for (final Map.Entry<?, ?> ent : valueAsMap.entrySet()) {
             if (ent.getValue() == null) {
                 continue;
             }
-            final A child = this.holder.createNode(ent.getKey());
-            newValue.put(ent.getKey(), child);
+            final Object key = this.holder.options().internKey(ent.getKey());
+            final A child = this.holder.createNode(key);
+            newValue.put(key, child);
             child.attached = true;
             child.setRaw(ent.getValue());
         }
-        synchronized (this) {
-            final Map<Object, A> oldMap = this.values;
-            this.values = newValue;
-            this.detachChildren(oldMap);
-        }
+        this.replaceMap(newValue);
     }
 
     @Override
@@ -106,12 +128,51 @@ public Iterable<A> iterateChildren() {
     }
 
     @Override
-    public MapNodeValue<N, A> copy(A holder) {
-        MapNodeValue<N, A> copy = new MapNodeValue<>(holder);
-        for (Map.Entry<Object, A> ent : this.values.entrySet()) {
-            copy.values.put(ent.getKey(), ent.getValue().copy(holder)); // recursively copy
+    public A holder() {
+        return this.holder;
+    }
+
+    @Override
+    public boolean isShared() {
+        return this.unshareLock != null;
+    }
+
+    @Override
+    public void share() {
+        if (this.unshareLock == null) {
+            UNSHARE_LOCK.compareAndSet(this, null, new ReentrantLock());
+        }
+    }
+
+    @Override
+    public MapNodeValue<N, A> unshare(final A holder) {
+        final ReentrantLock lock = Objects.requireNonNull(this.unshareLock, "not shared");
+        lock.lock();
+        try {
+            if (holder == this.holder && this.unshared != null) {
+                return this.unshared;
+            }
+            final MapNodeValue<N, A> unshared = new MapNodeValue<>(holder, this.values.size());
+            for (final Map.Entry<Object, A> ent : this.values.entrySet()) {
+                final A child = ent.getValue();
+                final A fresh = holder.createNode(ent.getKey());
+                fresh.attached = true;
+                fresh.value = child.sharedValue();
+                if (holder == this.holder) {
+                    // the holder keeps its live children, this value keeps an equal node for the nodes sharing it
+                    unshared.values.put(ent.getKey(), child);
+                    this.values.put(ent.getKey(), fresh);
+                } else {
+                    unshared.values.put(ent.getKey(), fresh);
+                }
+            }
+            if (holder == this.holder) {
+                this.unshared = unshared;
+            }
+            return unshared;
+        } finally {
+            lock.unlock();
         }
-        return copy;
     }
 
     @Override
@@ -121,11 +182,7 @@ public boolean isEmpty() {
 
     @Override
     public void clear() {
-        synchronized (this) {
-            final Map<Object, A> oldMap = this.values;
-            this.values = this.createMap();
-            this.detachChildren(oldMap);
-        }
+        this.replaceMap(this.createMap());
     }
 
     @Override
@@ -146,12 +203,13 @@ public int hashCode() {
         return this.values.hashCode();
     }
 
+    // swapping the map atomically hands every old map to exactly one writer, which detaches its children
+    @SuppressWarnings("unchecked")
+    private void replaceMap(final CompactMap<Object, A> map) {
+        this.detachChildren((CompactMap<Object, A>) VALUES.getAndSet(this, map));
+    }
+
     private void detachChildren(final Map<Object, A> map) {
-        for (A value : map.values()) {
-            value.attached = false;
-            if (Objects.equals(value.parent(), this.holder)) {
-                value.clear();
-            }
-        }
+        AbstractNode.detachChildren(this.holder, map.values());
     }
 }
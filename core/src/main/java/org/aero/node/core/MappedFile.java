@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// a file mapped in segments of a power of two size, the writer never lets a record cross a segment boundary
+final class MappedFile {
+
+    static final int MAGIC = 0x414E4D50; // "ANMP"
+    static final byte VERSION = 1;
+    static final int DEFAULT_SEGMENT_SHIFT = 30;
+    static final int HEADER_SIZE = 17;
+    static final int ROOT_OFFSET_POSITION = 9;
+    static final int MAP_ENTRY_SIZE = 20;
+    static final int LIST_ENTRY_SIZE = 8;
+
+    private final ByteBuffer[] segments;
+    private final int shift;
+    private final long mask;
+    private final long rootOffset;
+
+    private MappedFile(final ByteBuffer[] segments, final int shift, final long rootOffset) {
+        this.segments = segments;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        this.rootOffset = rootOffset;
+    }
+
+    static MappedFile open(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && size > header.position()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE) {
+                throw new IOException("Not a mapped node file");
+            }
+            BinaryFormat.checkHeader(header, MAGIC, VERSION);
+            final int shift = header.getInt();
+            if (shift < 12 || shift > 30) {
+                throw new IOException("Invalid segment size 2^" + shift);
+            }
+            final long rootOffset = header.getLong();
+            if (rootOffset < HEADER_SIZE || rootOffset >= size) {
+                throw new IOException("Invalid root offset " + rootOffset);
+            }
+
+            // mapping is lazy, pages are only loaded once they are touched
+            final long segmentSize = 1L << shift;
+            final ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentSize - 1) >>> shift)];
+            for (int i = 0; i < segments.length; i++) {
+                final long start = (long) i << shift;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+            }
+            return new MappedFile(segments, shift, rootOffset);
+        }
+    }
+
+    long rootOffset() {
+        return this.rootOffset;
+    }
+
+    byte tag(final long offset) {
+        return this.segments[(int) (offset >>> this.shift)].get((int) (offset & this.mask));
+    }
+
+    int getInt(final long offset) {
+        return this.segments[(int) (offset >>> this.shift)].getInt((int) (offset & this.mask));
+    }
+
+    long getLong(final long offset) {
+        return this.segments[(int) (offset >>> this.shift)].getLong((int) (offset & this.mask));
+    }
+
+    ByteBuffer at(final long offset) {
+        return this.segments[(int) (offset >>> this.shift)].duplicate().position((int) (offset & this.mask));
+    }
+
+}
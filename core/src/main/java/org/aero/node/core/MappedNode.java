@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A read-only node over a memory-mapped file. Opening only maps the file, navigation seeks through the offset index
+ * of each map and list, and scalars are decoded when they are read, so only the touched parts of the file are ever
+ * loaded. The file must not be modified while it is mapped.
+ */
+public sealed interface MappedNode extends ScopedNode<MappedNode> permits MappedNodeImpl {
+
+    static @NotNull MappedNode open(@NotNull Path path) throws IOException {
+        return MappedNode.open(path, NodeOptions.defaults());
+    }
+
+    static @NotNull MappedNode open(@NotNull Path path, @NotNull NodeOptions options) throws IOException {
+        Check.notNull(path, "path");
+        Check.notNull(options, "options");
+        final MappedFile file = MappedFile.open(path);
+        return new MappedNodeImpl(file, options, null, null, file.rootOffset());
+    }
+
+    static void write(@NotNull Node source, @NotNull Path path) throws IOException {
+        Check.notNull(source, "source");
+        Check.notNull(path, "path");
+        MappedNodeWriter.write(source, path, MappedFile.DEFAULT_SEGMENT_SHIFT);
+    }
+
+    @NotNull MappedNode root();
+
+    @Override
+    @Nullable MappedNode parent();
+
+    @Override
+    @NotNull MappedNode node(@NotNull Iterable<?> path);
+
+    @Override
+    default @NotNull MappedNode node(Object @NotNull ... path) {
+        return this.node(Arrays.asList(path));
+    }
+
+    @Override
+    default @NotNull MappedNode node(@NotNull NodePath path) {
+        return this.node((Iterable<?>) path);
+    }
+
+    @Override
+    @NotNull MappedNode appendChild();
+
+    @Override
+    @NotNull MappedNode set(Object value);
+
+    @Override
+    @NotNull MappedNode setRaw(Object value);
+
+    @Override
+    @NotNull MappedNode from(@NotNull Node other);
+
+    @Override
+    @NotNull MappedNode mergeFrom(@NotNull Node other);
+
+    @Override
+    @NotNull MappedNode copy();
+
+    @NotNull BasicNode toBasicNode();
+
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.aero.conversion.core.exception.ConversionException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// nodes are positions in the mapped file, a node without a record has the offset ABSENT
+final class MappedNodeImpl implements MappedNode {
+
+    private static final long ABSENT = -1;
+
+    private final MappedFile file;
+    private final NodeOptions options;
+    private final @Nullable MappedNodeImpl parent;
+    private final @Nullable Object key;
+    private final long offset;
+
+    MappedNodeImpl(MappedFile file, NodeOptions options, @Nullable MappedNodeImpl parent, @Nullable Object key,
+        long offset) {
+        this.file = file;
+        this.options = options;
+        this.parent = parent;
+        this.key = key;
+        this.offset = offset;
+    }
+
+    @Override
+    public @Nullable Object key() {
+        return this.key;
+    }
+
+    @Override
+    public @NotNull NodeOptions options() {
+        return this.options;
+    }
+
+    @Override
+    public @Nullable MappedNode parent() {
+        return this.parent;
+    }
+
+    @Override
+    public @NotNull MappedNode root() {
+        MappedNodeImpl root = this;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return root;
+    }
+
+    @Override
+    public @NotNull MappedNode node(@NotNull Iterable<?> path) {
+        MappedNodeImpl pointer = this;
+        for (final Object element : path) {
+            Check.notNull(element, "element in path");
+            pointer = new MappedNodeImpl(this.file, this.options, pointer, element, pointer.childOffset(element));
+        }
+        return pointer;
+    }
+
+    @Override
+    public boolean hasChild(@NotNull Iterable<?> path) {
+        long pointer = this.offset;
+        for (final Object element : path) {
+            Check.notNull(element, "element in path");
+            pointer = this.childOffset(pointer, element);
+            if (pointer == ABSENT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long childOffset(final Object key) {
+        return this.childOffset(this.offset, key);
+    }
+
+    private long childOffset(final long offset, final Object key) {
+        if (offset == ABSENT) {
+            return ABSENT;
+        }
+        final byte tag = this.file.tag(offset);
+        if (tag == BinaryFormat.TAG_LIST) {
+            if (!(key instanceof Integer index) || index < 0 || index >= this.file.getInt(offset + 1)) {
+                return ABSENT;
+            }
+            return this.file.getLong(offset + 5 + (long) index * MappedFile.LIST_ENTRY_SIZE);
+        }
+        if (tag != BinaryFormat.TAG_MAP) {
+            return ABSENT;
+        }
+
+        // binary search for the first entry with the hash, then compare the keys of all entries sharing it
+        final Object normalized = BinaryFormat.normalizeKey(key);
+        final int hash = normalized.hashCode();
+        final long entries = offset + 5;
+        int low = 0;
+        int high = this.file.getInt(offset + 1);
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (this.file.getInt(entries + (long) middle * MappedFile.MAP_ENTRY_SIZE) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        final int count = this.file.getInt(offset + 1);
+        for (int i = low; i < count; i++) {
+            final long entry = entries + (long) i * MappedFile.MAP_ENTRY_SIZE;
+            if (this.file.getInt(entry) != hash) {
+                break;
+            }
+            if (normalized.equals(this.readKey(this.file.getLong(entry + 4)))) {
+                return this.file.getLong(entry + 12);
+            }
+        }
+        return ABSENT;
+    }
+
+    @Override
+    public @NotNull MappedNode appendChild() {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeChild(@NotNull Object key) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return this.offset == ABSENT;
+    }
+
+    @Override
+    public boolean isNull() {
+        return this.offset == ABSENT || this.file.tag(this.offset) == BinaryFormat.TAG_NULL;
+    }
+
+    @Override
+    public boolean isList() {
+        return this.offset != ABSENT && this.file.tag(this.offset) == BinaryFormat.TAG_LIST;
+    }
+
+    @Override
+    public boolean isMap() {
+        return this.offset != ABSENT && this.file.tag(this.offset) == BinaryFormat.TAG_MAP;
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:UnnecessaryParentheses")
+    public boolean isEmpty() {
+        if (this.isList() || this.isMap()) {
+            return this.file.getInt(this.offset + 1) == 0;
+        }
+        final Object value = this.rawScalar();
+        return value == null
+            || (value instanceof String && ((String) value).isEmpty())
+            || (value instanceof Collection<?> && ((Collection<?>) value).isEmpty());
+    }
+
+    @Override
+    public @Nullable Object get() {
+        return this.materialize(this.offset);
+    }
+
+    @Override
+    public <T> @Nullable T getAs(@NotNull Class<T> type) {
+        Check.notNull(type, "type");
+        final Object value = this.get();
+        if (value == null) {
+            return null;
+        }
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        try {
+            return this.options.conversionBus().convert(value, type);
+        } catch (ConversionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // a mapped node can not store the default, it is only returned
+    @Override
+    public <T> @Nullable T getAsOrDefault(@NotNull Class<T> type, T def) {
+        final T value = this.getAs(type);
+        return value == null ? def : value;
+    }
+
+    @Override
+    public <T> @Nullable T getAsOrDefault(@NotNull Class<T> type, @NotNull Supplier<T> defSupplier) {
+        final T value = this.getAs(type);
+        return value == null ? defSupplier.get() : value;
+    }
+
+    @Override
+    public @NotNull MappedNode set(@Nullable Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public @NotNull MappedNode setRaw(@Nullable Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public @NotNull MappedNode from(@NotNull Node other) {
+        throw readOnly();
+    }
+
+    @Override
+    public @NotNull MappedNode mergeFrom(@NotNull Node other) {
+        throw readOnly();
+    }
+
+    @Override
+    public @Nullable Object rawScalar() {
+        if (this.offset == ABSENT) {
+            return null;
+        }
+        final byte tag = this.file.tag(this.offset);
+        return tag == BinaryFormat.TAG_MAP || tag == BinaryFormat.TAG_LIST ? null : this.readScalar(this.offset);
+    }
+
+    @Override
+    public List<MappedNode> childrenList() {
+        if (!this.isList()) {
+            return Collections.emptyList();
+        }
+        final int count = this.file.getInt(this.offset + 1);
+        final List<MappedNode> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final long child = this.file.getLong(this.offset + 5 + (long) i * MappedFile.LIST_ENTRY_SIZE);
+            children.add(new MappedNodeImpl(this.file, this.options, this, i, child));
+        }
+        return Collections.unmodifiableList(children);
+    }
+
+    @Override
+    public Map<Object, MappedNode> childrenMap() {
+        if (!this.isMap()) {
+            return Collections.emptyMap();
+        }
+        final int count = this.file.getInt(this.offset + 1);
+        final Map<Object, MappedNode> children = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final long entry = this.offset + 5 + (long) i * MappedFile.MAP_ENTRY_SIZE;
+            final Object key = this.readKey(this.file.getLong(entry + 4));
+            children.put(key, new MappedNodeImpl(this.file, this.options, this, key, this.file.getLong(entry + 12)));
+        }
+        return Collections.unmodifiableMap(children);
+    }
+
+    @Override
+    public @NotNull MappedNode copy() {
+        return this;
+    }
+
+    @Override
+    public @NotNull BasicNode toBasicNode() {
+        final BasicNode node = BasicNode.create(this.options);
+        node.from(this);
+        return node;
+    }
+
+    @Override
+    public MappedNode self() {
+        return this;
+    }
+
+    private @Nullable Object materialize(final long offset) {
+        // containers are filled through an explicit stack, so files of any depth can be read
+        final Deque<Container> stack = new ArrayDeque<>();
+        final @Nullable Object root = this.open(offset, stack);
+        while (!stack.isEmpty()) {
+            final Container container = stack.peek();
+            if (container.index == container.count) {
+                stack.pop();
+                continue;
+            }
+            final int index = container.index++;
+            if (container.list != null) {
+                final @Nullable Object element = this.open(
+                    this.file.getLong(container.offset + 5 + (long) index * MappedFile.LIST_ENTRY_SIZE), stack);
+                if (element != null) {
+                    container.list.add(element);
+                }
+            } else if (container.map != null) {
+                final long entry = container.offset + 5 + (long) index * MappedFile.MAP_ENTRY_SIZE;
+                final @Nullable Object value = this.open(this.file.getLong(entry + 12), stack);
+                if (value != null) {
+                    container.map.put(this.readKey(this.file.getLong(entry + 4)), value);
+                }
+            }
+        }
+        return root;
+    }
+
+    // reads a scalar, or creates an empty container and pushes it to be filled
+    private @Nullable Object open(final long offset, final Deque<Container> stack) {
+        if (offset == ABSENT) {
+            return null;
+        }
+        final byte tag = this.file.tag(offset);
+        if (tag == BinaryFormat.TAG_LIST) {
+            final int count = this.file.getInt(offset + 1);
+            final List<Object> list = new ArrayList<>(count);
+            stack.push(new Container(offset, count, list, null));
+            return list;
+        } else if (tag == BinaryFormat.TAG_MAP) {
+            final int count = this.file.getInt(offset + 1);
+            final Map<Object, Object> map = new LinkedHashMap<>();
+            stack.push(new Container(offset, count, null, map));
+            return map;
+        }
+        return this.readScalar(offset);
+    }
+
+    private @Nullable Object readScalar(final long offset) {
+        final byte tag = this.file.tag(offset);
+        if (tag == BinaryFormat.TAG_NULL) {
+            return null;
+        }
+        try {
+            return BinaryFormat.readScalar(this.file.at(offset + 1), tag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Object readKey(final long offset) {
+        try {
+            return BinaryFormat.readKey(this.file.at(offset));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Mapped nodes are read-only");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof MappedNodeImpl that)) {
+            return false;
+        }
+
+        // nodes are positions in a file, absent nodes are told apart by their parent
+        return this.file == that.file && this.offset == that.offset && Objects.equals(this.key, that.key)
+            && (this.offset != ABSENT || Objects.equals(this.parent, that.parent));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.key) ^ Long.hashCode(this.offset);
+    }
+
+    private static final class Container {
+
+        private final long offset;
+        private final int count;
+        private final @Nullable List<Object> list;
+        private final @Nullable Map<Object, Object> map;
+        private int index;
+
+        private Container(final long offset, final int count, final @Nullable List<Object> list,
+            final @Nullable Map<Object, Object> map) {
+            this.offset = offset;
+            this.count = count;
+            this.list = list;
+            this.map = map;
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// writes children before their parents, so every container record can point at the records of its children
+final class MappedNodeWriter {
+
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final FileChannel channel;
+    private final int shift;
+    private final ByteSink output = new ByteSink(FLUSH_THRESHOLD);
+    private final ByteSink record = new ByteSink(256);
+    private final Map<Object, Long> keyOffsets = new HashMap<>();
+    private long flushed;
+
+    private MappedNodeWriter(final FileChannel channel, final int shift) {
+        this.channel = channel;
+        this.shift = shift;
+    }
+
+    static void write(final Node node, final Path path, final int shift) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            new MappedNodeWriter(channel, shift).write(node);
+        }
+    }
+
+    private void write(final Node root) throws IOException {
+        BinaryFormat.writeHeader(this.output, MappedFile.MAGIC, MappedFile.VERSION);
+        this.output.writeInt(this.shift);
+        this.output.writeLong(0); // the root offset is only known at the end
+
+        final long rootOffset = this.writeTree(root);
+        this.flush();
+        final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, rootOffset);
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer, MappedFile.ROOT_OFFSET_POSITION + buffer.position());
+        }
+    }
+
+    private long writeTree(final Node root) throws IOException {
+        final Deque<Frame> stack = new ArrayDeque<>();
+        long offset = this.visit(root, stack);
+        while (!stack.isEmpty()) {
+            final Frame frame = stack.peek();
+            if (frame.index == frame.children.length) {
+                stack.pop();
+                offset = this.writeContainer(frame);
+            } else {
+                offset = this.visit(frame.children[frame.index++], stack);
+            }
+
+            // a negative offset means a container was pushed and will be written once its children are
+            if (offset >= 0) {
+                final @Nullable Frame parent = stack.peek();
+                if (parent != null) {
+                    parent.offsets[parent.index - 1] = offset;
+                }
+            }
+        }
+        return offset;
+    }
+
+    private long visit(final Node node, final Deque<Frame> stack) throws IOException {
+        final Iterable<? extends Node> children;
+        final boolean map;
+        if (node instanceof AbstractNode<?, ?> abstractNode) {
+            final NodeValue<?, ?> value = abstractNode.value;
+            if (value instanceof MapNodeValue<?, ?> || value instanceof ListNodeValue<?, ?>) {
+                children = value.iterateChildren();
+                map = value instanceof MapNodeValue<?, ?>;
+            } else {
+                return this.writeScalar(value.get());
+            }
+        } else if (node.isMap()) {
+            children = node.childrenMap().values();
+            map = true;
+        } else if (node.isList()) {
+            children = node.childrenList();
+            map = false;
+        } else {
+            return this.writeScalar(node.get());
+        }
+
+        final List<Node> snapshot = new ArrayList<>();
+        for (final Node child : children) {
+            snapshot.add(child);
+        }
+        stack.push(new Frame(snapshot.toArray(new Node[0]), map));
+        return -1;
+    }
+
+    private long writeScalar(final @Nullable Object value) throws IOException {
+        this.record.clear();
+        if (value == null) {
+            this.record.writeByte(BinaryFormat.TAG_NULL);
+        } else {
+            BinaryFormat.writeScalar(this.record, value);
+        }
+        return this.emit();
+    }
+
+    private long writeContainer(final Frame frame) throws IOException {
+        final int count = frame.children.length;
+        if (!frame.map) {
+            this.record.clear();
+            this.record.writeByte(BinaryFormat.TAG_LIST);
+            this.record.writeInt(count);
+            for (final long offset : frame.offsets) {
+                this.record.writeLong(offset);
+            }
+            return this.emit();
+        }
+
+        // entries are sorted by key hash, so readers can binary search them
+        final Object[] keys = new Object[count];
+        final long[] keyOffsets = new long[count];
+        final long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = BinaryFormat.normalizeKey(frame.children[i].key());
+            keyOffsets[i] = this.keyOffset(keys[i]);
+            order[i] = ((long) keys[i].hashCode() << 32) | i;
+        }
+        Arrays.sort(order);
+
+        this.record.clear();
+        this.record.writeByte(BinaryFormat.TAG_MAP);
+        this.record.writeInt(count);
+        for (final long entry : order) {
+            final int index = (int) entry;
+            this.record.writeInt(keys[index].hashCode());
+            this.record.writeLong(keyOffsets[index]);
+            this.record.writeLong(frame.offsets[index]);
+        }
+        return this.emit();
+    }
+
+    private long keyOffset(final Object key) throws IOException {
+        final @Nullable Long existing = this.keyOffsets.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        this.record.clear();
+        BinaryFormat.writeKey(this.record, key);
+        final long offset = this.emit();
+        this.keyOffsets.put(key, offset);
+        return offset;
+    }
+
+    private long emit() throws IOException {
+        final long segmentSize = 1L << this.shift;
+        final int size = this.record.size();
+        if (size > segmentSize) {
+            throw new IOException("A record of " + size + " bytes does not fit into a segment of " + segmentSize);
+        }
+
+        long offset = this.flushed + this.output.size();
+        final long used = offset & (segmentSize - 1);
+        if (used + size > segmentSize) {
+            // skip to the next segment, the gap is left to the file system
+            this.flush();
+            this.flushed += segmentSize - used;
+            offset = this.flushed;
+        }
+
+        this.record.writeTo(this.output);
+        if (this.output.size() >= FLUSH_THRESHOLD) {
+            this.flush();
+        }
+        return offset;
+    }
+
+    private void flush() throws IOException {
+        this.output.writeTo(this.channel, this.flushed);
+        this.flushed += this.output.size();
+        this.output.clear();
+    }
+
+    private static final class Frame {
+
+        private final Node[] children;
+        private final boolean map;
+        private final long[] offsets;
+        private int index;
+
+        private Frame(final Node[] children, final boolean map) {
+            this.children = children;
+            this.map = map;
+            this.offsets = new long[children.length];
+        }
+    }
+
+}
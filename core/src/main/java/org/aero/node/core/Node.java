@@ -20,9 +20,13 @@
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 @ApiStatus.Experimental
@@ -30,6 +34,8 @@ public interface Node {
 
     @Nullable Object key();
 
+    @NotNull NodeOptions options();
+
     @Nullable Node parent();
 
     @NotNull Node node(@NotNull Iterable<?> path);
@@ -38,12 +44,30 @@ public interface Node {
         return this.node(Arrays.asList(path));
     }
 
+    default @NotNull Node node(@NotNull NodePath path) {
+        return this.node((Iterable<?>) path);
+    }
+
+    /**
+     * Resolves an existing node without creating virtual nodes for missing path elements.
+     *
+     * @param path the path of the node
+     * @return the node or null if it does not exist
+     */
+    default @Nullable Node find(@NotNull NodePath path) {
+        return this.hasChild(path) ? this.node(path) : null;
+    }
+
     boolean hasChild(@NotNull Iterable<?> path);
 
     default boolean hasChild(@NotNull Object... path) {
         return this.hasChild(Arrays.asList(path));
     }
 
+    default boolean hasChild(@NotNull NodePath path) {
+        return this.hasChild((Iterable<?>) path);
+    }
+
     @NotNull Node appendChild();
 
     boolean removeChild(@NotNull Object key);
@@ -66,10 +90,69 @@ default boolean hasChild(@NotNull Object... path) {
 
     <T> @Nullable T getAsOrDefault(@NotNull Class<T> type, @NotNull Supplier<T> defSupplier);
 
+    default int getInt() {
+        return this.getInt(0);
+    }
+
+    /**
+     * Reads the value of this node as an int. Unlike {@link #getAsOrDefault(Class, Object)} the default is only
+     * returned and never stored. Values set through {@link #setInt(int)} are read without boxing or conversion.
+     *
+     * @param def the value returned if this node has no value
+     * @return the value of this node or the default
+     */
+    default int getInt(int def) {
+        final Integer value = this.getAs(Integer.class);
+        return value == null ? def : value;
+    }
+
+    default long getLong() {
+        return this.getLong(0L);
+    }
+
+    default long getLong(long def) {
+        final Long value = this.getAs(Long.class);
+        return value == null ? def : value;
+    }
+
+    default double getDouble() {
+        return this.getDouble(0D);
+    }
+
+    default double getDouble(double def) {
+        final Double value = this.getAs(Double.class);
+        return value == null ? def : value;
+    }
+
+    default boolean getBoolean() {
+        return this.getBoolean(false);
+    }
+
+    default boolean getBoolean(boolean def) {
+        final Boolean value = this.getAs(Boolean.class);
+        return value == null ? def : value;
+    }
+
     @NotNull Node set(Object value);
 
     @NotNull Node setRaw(Object value);
 
+    default @NotNull Node setInt(int value) {
+        return this.setRaw(value);
+    }
+
+    default @NotNull Node setLong(long value) {
+        return this.setRaw(value);
+    }
+
+    default @NotNull Node setDouble(double value) {
+        return this.setRaw(value);
+    }
+
+    default @NotNull Node setBoolean(boolean value) {
+        return this.setRaw(value);
+    }
+
     Node from(@NotNull Node other);
 
     Node mergeFrom(@NotNull Node other);
@@ -80,6 +163,73 @@ default boolean hasChild(@NotNull Object... path) {
 
     Map<Object, ? extends Node> childrenMap();
 
+    /**
+     * Passes every child of this node with its key to the action, without copying the children first. List children
+     * are passed with their index as key.
+     *
+     * @param action the action to perform for every child
+     */
+    default void forEachChild(@NotNull BiConsumer<Object, ? super Node> action) {
+        if (this.isMap()) {
+            this.childrenMap().forEach(action);
+        } else if (this.isList()) {
+            final List<? extends Node> children = this.childrenList();
+            for (int i = 0; i < children.size(); i++) {
+                action.accept(i, children.get(i));
+            }
+        }
+    }
+
+    /**
+     * Walks this node and all of its descendants depth first, passing them to the visitor. The walk keeps its own
+     * stack, so trees of any depth can be visited.
+     *
+     * @param visitor the visitor receiving the nodes
+     */
+    default void visit(@NotNull NodeVisitor visitor) {
+        NodeWalker.walk(this, visitor);
+    }
+
     @NotNull Node copy();
 
+    /**
+     * Reports where the other node differs from this one, at paths relative to both nodes. Lists are compared index by
+     * index. Subtrees sharing their value, or whose cached 64 bit hashes match, are skipped without descending, so
+     * comparing trees that mostly agree costs time proportional to their differences. A hash collision could hide a
+     * difference, which is unlikely enough to be ignored.
+     *
+     * @param other the node to compare with
+     * @param action the action receiving the differences in the order of the children
+     */
+    default void diff(@NotNull Node other, @NotNull Consumer<? super NodeDifference> action) {
+        NodeDiff.diff(this, other, action);
+    }
+
+    default @NotNull List<NodeDifference> diff(@NotNull Node other) {
+        final List<NodeDifference> differences = new ArrayList<>();
+        this.diff(other, differences::add);
+        return differences;
+    }
+
+    /**
+     * Subscribes to changes of this node, its descendants and its ancestors. The changes made by one mutation, like a
+     * {@link #mergeFrom(Node)} of many keys, are coalesced and passed to the listener as one batch on the
+     * {@link NodeOptions#listenerExecutor(Executor) listener executor}. Nodes that cannot change never notify.
+     *
+     * @param listener the listener to notify
+     * @return the subscription, which stops notifying once closed
+     */
+    default @NotNull NodeSubscription subscribe(@NotNull NodeListener listener) {
+        return () -> {};
+    }
+
+    /**
+     * Creates a deeply read-only copy of this node and its descendants, which is cheaper to read than a mutable tree.
+     *
+     * @return the frozen copy
+     */
+    default @NotNull FrozenNode freeze() {
+        return FrozenNode.of(this);
+    }
+
 }
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a whole tree on a single thread and publishes it at once. Children are created straight inside their final
+ * containers, without the attaching and locking of {@link Node#node(Object...)} and {@link Node#set(Object)}.
+ * Containers are opened with {@link #beginMap()} or {@link #beginList()} and closed with {@link #end()}; every member
+ * of a map is preceded by its {@link #key(Object)}. Null values are dropped, like {@link Node#set(Object)} does.
+ *
+ * <p>A builder is not thread-safe and can only be built once.</p>
+ *
+ * @param <T> the type of the built node
+ */
+public final class NodeBuilder<T extends Node> {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private final T target;
+    private final AbstractNode<?, ?> root;
+    private final NodeOptions options;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private @Nullable NodeValue<?, ?> rootValue;
+    private @Nullable Object key;
+    private boolean keyInterned;
+    private boolean complete;
+    private boolean built;
+
+    private NodeBuilder(final T target, final AbstractNode<?, ?> root) {
+        this.target = target;
+        this.root = root;
+        this.options = root.options();
+    }
+
+    public static @NotNull NodeBuilder<BasicNode> create() {
+        return into(BasicNode.create());
+    }
+
+    public static @NotNull NodeBuilder<BasicNode> create(@NotNull NodeOptions options) {
+        return into(BasicNode.create(options));
+    }
+
+    /**
+     * Creates a builder replacing the value of the given node once it is built.
+     *
+     * @param target the node receiving the tree, created by this library
+     * @param <T>    the type of the target
+     * @return the builder
+     */
+    public static <T extends Node> @NotNull NodeBuilder<T> into(@NotNull T target) {
+        Check.notNull(target, "target");
+        if (!(target instanceof AbstractNode<?, ?> node)) {
+            throw new IllegalArgumentException("Cannot build into a node of type " + target.getClass().getName());
+        }
+        return new NodeBuilder<>(target, node);
+    }
+
+    public @NotNull NodeBuilder<T> key(@NotNull Object key) {
+        return this.key(key, false);
+    }
+
+    // keys taken from an already interned table skip the pool
+    NodeBuilder<T> key(final Object key, final boolean interned) {
+        Check.notNull(key, "key");
+        final @Nullable Frame frame = this.stack.peek();
+        if (frame == null || !frame.map) {
+            throw new IllegalStateException("Keys can only be given inside a map");
+        } else if (this.key != null) {
+            throw new IllegalStateException("Expected a value for key '" + this.key + "'");
+        }
+        this.key = key;
+        this.keyInterned = interned;
+        return this;
+    }
+
+    public @NotNull NodeBuilder<T> beginMap() {
+        return this.beginMap(DEFAULT_CAPACITY);
+    }
+
+    public @NotNull NodeBuilder<T> beginMap(int expectedSize) {
+        this.stack.push(new Frame(this.next(), true, Math.max(expectedSize, 1) << 1));
+        return this;
+    }
+
+    public @NotNull NodeBuilder<T> beginList() {
+        return this.beginList(DEFAULT_CAPACITY);
+    }
+
+    public @NotNull NodeBuilder<T> beginList(int expectedSize) {
+        this.stack.push(new Frame(this.next(), false, Math.max(expectedSize, 1)));
+        return this;
+    }
+
+    public @NotNull NodeBuilder<T> end() {
+        final @Nullable Frame frame = this.stack.poll();
+        if (frame == null) {
+            throw new IllegalStateException("There is no open map or list");
+        } else if (this.key != null) {
+            throw new IllegalStateException("Expected a value for key '" + this.key + "'");
+        }
+        this.assign(frame.node, container(frame.node, frame));
+        return this;
+    }
+
+    public @NotNull NodeBuilder<T> value(@Nullable Object value) {
+        Check.argCondition(value instanceof Node, "Cannot set a node as the raw value of another node");
+        if (value == null) {
+            // nodes never hold null, so no child is created for it
+            if (this.stack.isEmpty()) {
+                this.beginRoot();
+            } else {
+                this.nextKey();
+            }
+            return this;
+        }
+
+        final AbstractNode<?, ?> node = this.next();
+        this.assign(node, raw(node, value));
+        return this;
+    }
+
+    public @NotNull NodeBuilder<T> value(int value) {
+        return this.primitive(ScalarNodeValue.KIND_INT, value);
+    }
+
+    public @NotNull NodeBuilder<T> value(long value) {
+        return this.primitive(ScalarNodeValue.KIND_LONG, value);
+    }
+
+    public @NotNull NodeBuilder<T> value(double value) {
+        return this.primitive(ScalarNodeValue.KIND_DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public @NotNull NodeBuilder<T> value(boolean value) {
+        return this.primitive(ScalarNodeValue.KIND_BOOLEAN, value ? 1 : 0);
+    }
+
+    /**
+     * Replaces the value of the target with the built tree. Readers of the target see either its old value or the
+     * complete tree.
+     *
+     * @return the target
+     * @throws IllegalStateException if a map or list is still open, or the builder was already built
+     */
+    public @NotNull T build() {
+        if (this.built) {
+            throw new IllegalStateException("The builder was already built");
+        } else if (!this.stack.isEmpty()) {
+            throw new IllegalStateException(this.stack.size() + " maps or lists are still open");
+        }
+        this.built = true;
+        publish(this.root, this.rootValue);
+        return this.target;
+    }
+
+    // the number of open maps and lists
+    int depth() {
+        return this.stack.size();
+    }
+
+    boolean inMap() {
+        final @Nullable Frame frame = this.stack.peek();
+        return frame != null && frame.map;
+    }
+
+    private NodeBuilder<T> primitive(final byte kind, final long bits) {
+        final AbstractNode<?, ?> node = this.next();
+        this.assign(node, scalar(node, kind, bits, null));
+        return this;
+    }
+
+    // the node receiving the next value
+    private AbstractNode<?, ?> next() {
+        final @Nullable Frame frame = this.stack.peek();
+        if (frame == null) {
+            this.beginRoot();
+            return this.root;
+        }
+
+        final Object key;
+        if (frame.map) {
+            final boolean interned = this.keyInterned;
+            key = interned ? this.nextKey() : this.options.internKey(this.nextKey());
+        } else {
+            key = frame.size;
+        }
+        final AbstractNode<?, ?> child = child(frame.node, key);
+        frame.add(key, child);
+        return child;
+    }
+
+    private void beginRoot() {
+        if (this.built) {
+            throw new IllegalStateException("The builder was already built");
+        } else if (this.complete) {
+            throw new IllegalStateException("The root value was already given");
+        }
+        this.complete = true;
+    }
+
+    private Object nextKey() {
+        final @Nullable Object key = this.key;
+        final @Nullable Frame frame = this.stack.peek();
+        if (frame != null && !frame.map) {
+            return frame.size;
+        } else if (key == null) {
+            throw new IllegalStateException("Expected a key before the value of a map member");
+        }
+        this.key = null;
+        return key;
+    }
+
+    private void assign(final AbstractNode<?, ?> node, final NodeValue<?, ?> value) {
+        if (node == this.root) {
+            this.rootValue = value;
+        } else {
+            assignValue(node, value);
+        }
+    }
+
+    private static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> A child(final AbstractNode<N, A> parent,
+        final Object key) {
+        final A child = parent.createNode(key);
+        child.attached = true;
+        return child;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> void assignValue(
+        final AbstractNode<N, A> node, final NodeValue<?, ?> value) {
+        // the value was created for this very node
+        node.value = (NodeValue<N, A>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> void publish(final AbstractNode<N, A> node,
+        final @Nullable NodeValue<?, ?> value) {
+        node.replaceValue(value == null ? NullNodeValue.instance() : (NodeValue<N, A>) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> NodeValue<N, A> container(
+        final AbstractNode<N, A> node, final Frame frame) {
+        final A holder = node.implSelf();
+        if (frame.map) {
+            return new MapNodeValue<>(holder, new CompactMap<>(frame.entries, frame.size << 1));
+        }
+        final List<A> children = new ArrayList<>(frame.size);
+        for (int i = 0; i < frame.size; i++) {
+            children.add((A) frame.entries[i]);
+        }
+        return new ListNodeValue<>(holder, children);
+    }
+
+    private static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> NodeValue<N, A> raw(
+        final AbstractNode<N, A> node, final Object raw) {
+        final A holder = node.implSelf();
+        final NodeValue<N, A> value;
+        if (raw instanceof Map<?, ?>) {
+            value = new MapNodeValue<>(holder);
+        } else if (raw instanceof Collection<?>) {
+            value = new ListNodeValue<>(holder);
+        } else {
+            return scalar(node, ScalarNodeValue.KIND_OBJECT, 0, raw);
+        }
+        value.set(raw);
+        return value;
+    }
+
+    private static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> ScalarNodeValue<N, A> scalar(
+        final AbstractNode<N, A> node, final byte kind, final long bits, final @Nullable Object raw) {
+        final ScalarNodeValue<N, A> value = new ScalarNodeValue<>(node.implSelf());
+        value.initialize(kind, bits, raw);
+        return value;
+    }
+
+    // an open container, holding alternating keys and children for maps and only children for lists
+    private static final class Frame {
+
+        private final AbstractNode<?, ?> node;
+        private final boolean map;
+        private Object[] entries;
+        private int size;
+
+        private Frame(final AbstractNode<?, ?> node, final boolean map, final int capacity) {
+            this.node = node;
+            this.map = map;
+            this.entries = new Object[capacity];
+        }
+
+        private void add(final Object key, final AbstractNode<?, ?> child) {
+            final int slots = this.map ? 2 : 1;
+            final int index = this.size * slots;
+            if (index + slots > this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.entries.length << 1);
+            }
+            if (this.map) {
+                this.entries[index] = key;
+                this.entries[index + 1] = child;
+            } else {
+                this.entries[index] = child;
+            }
+            this.size++;
+        }
+    }
+
+}
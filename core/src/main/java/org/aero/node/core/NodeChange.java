@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A change of a node, reported to {@link NodeListener listeners} with the path of the node from the root of its tree.
+ */
+public final class NodeChange {
+
+    private final Type type;
+    private final NodePath path;
+
+    NodeChange(final Type type, final NodePath path) {
+        Check.notNull(type, "type");
+        Check.notNull(path, "path");
+        this.type = type;
+        this.path = path;
+    }
+
+    public @NotNull Type type() {
+        return this.type;
+    }
+
+    public @NotNull NodePath path() {
+        return this.path;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof NodeChange that)) {
+            return false;
+        }
+
+        return this.type == that.type && this.path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.type, this.path);
+    }
+
+    @Override
+    public String toString() {
+        return this.type + " " + this.path;
+    }
+
+    /**
+     * The kinds of changes. A change of a node covers its descendants as well.
+     */
+    public enum Type {
+
+        /**
+         * The value of the node was replaced or written to.
+         */
+        SET,
+        /**
+         * The node was removed from its parent or its value was cleared.
+         */
+        REMOVE,
+        /**
+         * A virtual node became part of the tree.
+         */
+        ATTACH
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+
+// builds a copy of the visited tree below a target node. The value for the target itself is only collected, so the
+// caller decides how to publish it. Null children are dropped, like set() does.
+final class NodeCopier<N extends ScopedNode<N>, A extends AbstractNode<N, A>> implements NodeVisitor {
+
+    private final A target;
+    private final Deque<Frame<N, A>> stack = new ArrayDeque<>();
+    private NodeValue<N, A> value = NullNodeValue.instance();
+
+    NodeCopier(final A target) {
+        this.target = target;
+    }
+
+    static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> NodeValue<N, A> copy(final Node source,
+        final A target) {
+        final NodeOptions options = target.options();
+        final @Nullable ForkJoinPool pool = options.forkJoinPool();
+        final int threshold = options.parallelThreshold();
+        if (pool != null && NodeForkJoin.weight(source, threshold) >= threshold) {
+            return NodeForkJoin.copy(pool, source, target);
+        }
+        return copySequential(source, target);
+    }
+
+    static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> NodeValue<N, A> copySequential(final Node source,
+        final A target) {
+        final NodeCopier<N, A> copier = new NodeCopier<>(target);
+        NodeWalker.read(source, copier);
+        return copier.value;
+    }
+
+    @Override
+    public boolean enterMap(@NotNull Node node) {
+        final A target = this.begin(node);
+        final int size = size(node);
+        final MapNodeValue<N, A> value = size < 0 ? new MapNodeValue<>(target) : new MapNodeValue<>(target, size);
+        this.assign(target, value);
+        this.stack.push(new Frame<>(target, value));
+        return true;
+    }
+
+    @Override
+    public void leaveMap(@NotNull Node node) {
+        this.stack.pop();
+    }
+
+    @Override
+    public boolean enterList(@NotNull Node node) {
+        final A target = this.begin(node);
+        final int size = size(node);
+        final ListNodeValue<N, A> value = size < 0 ? new ListNodeValue<>(target) : new ListNodeValue<>(target, size);
+        this.assign(target, value);
+        this.stack.push(new Frame<>(target, value));
+        return true;
+    }
+
+    @Override
+    public void leaveList(@NotNull Node node) {
+        this.stack.pop();
+    }
+
+    @Override
+    public void visitScalar(@NotNull Node node) {
+        final @Nullable ScalarNodeValue<?, ?> source;
+        final @Nullable Object raw;
+        if (node instanceof AbstractNode<?, ?> abstractNode) {
+            final NodeValue<?, ?> value = abstractNode.value;
+            source = value instanceof ScalarNodeValue<?, ?> scalar ? scalar : null;
+            raw = value.get();
+        } else {
+            source = null;
+            raw = node.get();
+        }
+        if (raw == null) {
+            return;
+        }
+
+        final A target = this.begin(node);
+        final ScalarNodeValue<N, A> value = new ScalarNodeValue<>(target);
+        if (source != null) {
+            // keeps primitives unboxed
+            source.copyTo(value);
+        } else {
+            value.set(raw);
+        }
+        this.assign(target, value);
+    }
+
+    // whether the node would be dropped by a copy
+    static boolean isNull(final Node node) {
+        if (node instanceof AbstractNode<?, ?> abstractNode) {
+            final NodeValue<?, ?> value = abstractNode.value;
+            return !(value instanceof MapNodeValue<?, ?>) && !(value instanceof ListNodeValue<?, ?>)
+                && value.get() == null;
+        }
+        return !node.isMap() && !node.isList() && node.get() == null;
+    }
+
+    private A begin(final Node source) {
+        final @Nullable Frame<N, A> parent = this.stack.peek();
+        if (parent == null) {
+            return this.target;
+        }
+        final Object key = parent.value instanceof ListNodeValue<N, A>
+            ? parent.size++
+            : parent.node.options().internKey(source.key());
+        final A child = parent.node.createNode(key);
+        child.attached = true;
+        parent.value.putChild(key, child);
+        return child;
+    }
+
+    private void assign(final A target, final NodeValue<N, A> value) {
+        if (target == this.target) {
+            this.value = value;
+        } else {
+            target.value = value;
+        }
+    }
+
+    private static int size(final Node node) {
+        if (node instanceof AbstractNode<?, ?> abstractNode) {
+            final NodeValue<?, ?> value = abstractNode.value;
+            if (value instanceof MapNodeValue<?, ?> map) {
+                return map.children().size();
+            } else if (value instanceof ListNodeValue<?, ?> list) {
+                return list.children().size();
+            }
+        }
+        return -1;
+    }
+
+    private static final class Frame<N extends ScopedNode<N>, A extends AbstractNode<N, A>> {
+
+        private final A node;
+        private final NodeValue<N, A> value;
+        private int size;
+
+        private Frame(final A node, final NodeValue<N, A> value) {
+            this.node = node;
+            this.value = value;
+        }
+    }
+
+}
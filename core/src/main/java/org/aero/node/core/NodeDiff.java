@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+// compares two trees pair by pair with an explicit stack. Pairs of AbstractNodes sharing their value or with equal
+// cached hashes are skipped without descending, so equal subtrees are never walked and the trees are compared in time
+// proportional to their differences. The hashes are 64 bits wide, so a collision hiding a difference is negligible.
+final class NodeDiff {
+
+    private static final int NULL = 0;
+    private static final int SCALAR = 1;
+    private static final int MAP = 2;
+    private static final int LIST = 3;
+
+    private NodeDiff() {
+
+    }
+
+    static void diff(final Node left, final Node right, final Consumer<? super NodeDifference> action) {
+        Check.notNull(right, "other");
+        Check.notNull(action, "action");
+        if (left instanceof AbstractNode<?, ?> leftNode && right instanceof AbstractNode<?, ?> rightNode) {
+            // hashing once up front lets every level below skip its equal subtrees
+            NodeHasher.hash(leftNode);
+            NodeHasher.hash(rightNode);
+        }
+
+        final Deque<Pair> pending = new ArrayDeque<>();
+        final Pair root = new Pair(new Side(left), new Side(right), null, null);
+        if (!root.skippable()) {
+            pending.push(root);
+        }
+        final List<Pair> children = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            final Pair pair = pending.pop();
+            final Side a = pair.left;
+            final Side b = pair.right;
+            if (a.kind == NULL || b.kind == NULL) {
+                if (a.kind != b.kind) {
+                    action.accept(new NodeDifference(a.kind == NULL
+                        ? NodeDifference.Type.ADDED : NodeDifference.Type.REMOVED, pair.path()));
+                }
+                continue;
+            }
+            if (a.kind != b.kind) {
+                action.accept(new NodeDifference(NodeDifference.Type.TYPE_CHANGED, pair.path()));
+                continue;
+            }
+
+            switch (a.kind) {
+                case SCALAR -> {
+                    if (!Objects.equals(a.get(), b.get())) {
+                        action.accept(new NodeDifference(NodeDifference.Type.CHANGED, pair.path()));
+                    }
+                }
+                case MAP -> {
+                    for (final Node child : a.children()) {
+                        final Object key = Objects.requireNonNull(child.key(), "key");
+                        final @Nullable Node other = b.child(key);
+                        children.add(new Pair(new Side(child), new Side(other), pair.path(), key));
+                    }
+                    for (final Node child : b.children()) {
+                        final Object key = Objects.requireNonNull(child.key(), "key");
+                        if (a.child(key) == null) {
+                            children.add(new Pair(new Side(null), new Side(child), pair.path(), key));
+                        }
+                    }
+                }
+                default -> {
+                    final Iterator<? extends Node> leftChildren = a.children().iterator();
+                    final Iterator<? extends Node> rightChildren = b.children().iterator();
+                    int index = 0;
+                    while (leftChildren.hasNext() || rightChildren.hasNext()) {
+                        final @Nullable Node leftChild = leftChildren.hasNext() ? leftChildren.next() : null;
+                        final @Nullable Node rightChild = rightChildren.hasNext() ? rightChildren.next() : null;
+                        children.add(new Pair(new Side(leftChild), new Side(rightChild), pair.path(), index++));
+                    }
+                }
+            }
+
+            // pushed in reverse, so differences are reported in the order of the children
+            for (int i = children.size() - 1; i >= 0; i--) {
+                final Pair child = children.get(i);
+                if (!child.skippable()) {
+                    pending.push(child);
+                }
+            }
+            children.clear();
+        }
+    }
+
+    private static final class Pair {
+
+        private final Side left;
+        private final Side right;
+        private final @Nullable NodePath parent;
+        private final @Nullable Object key;
+        private @Nullable NodePath path;
+
+        Pair(final Side left, final Side right, final @Nullable NodePath parent, final @Nullable Object key) {
+            this.left = left;
+            this.right = right;
+            this.parent = parent;
+            this.key = key;
+        }
+
+        // built on demand, skipped pairs never need their path
+        NodePath path() {
+            @Nullable NodePath path = this.path;
+            if (path == null) {
+                path = this.parent == null ? NodePath.root() : this.parent.child(Objects.requireNonNull(this.key));
+                this.path = path;
+            }
+            return path;
+        }
+
+        boolean skippable() {
+            if (this.left.value != null && this.left.value == this.right.value) {
+                return true;
+            }
+            return this.left.node instanceof AbstractNode<?, ?> leftNode
+                && this.right.node instanceof AbstractNode<?, ?> rightNode
+                && NodeHasher.same(leftNode, rightNode);
+        }
+    }
+
+    // one node of a pair, an AbstractNode is read from a single snapshot of its value
+    private static final class Side {
+
+        private final @Nullable Node node;
+        private final @Nullable NodeValue<?, ?> value;
+        private final int kind;
+
+        Side(final @Nullable Node node) {
+            this.node = node;
+            if (node instanceof AbstractNode<?, ?> abstractNode) {
+                final NodeValue<?, ?> value = abstractNode.value;
+                this.value = value;
+                if (value instanceof MapNodeValue<?, ?>) {
+                    this.kind = MAP;
+                } else if (value instanceof ListNodeValue<?, ?>) {
+                    this.kind = LIST;
+                } else {
+                    this.kind = value instanceof NullNodeValue ? NULL : SCALAR;
+                }
+            } else {
+                this.value = null;
+                if (node == null || node.isVirtual()) {
+                    this.kind = NULL;
+                } else if (node.isMap()) {
+                    this.kind = MAP;
+                } else if (node.isList()) {
+                    this.kind = LIST;
+                } else {
+                    this.kind = node.get() == null ? NULL : SCALAR;
+                }
+            }
+        }
+
+        @Nullable Object get() {
+            return this.value != null ? this.value.get() : Objects.requireNonNull(this.node).get();
+        }
+
+        Iterable<? extends Node> children() {
+            if (this.value != null) {
+                return this.value.iterateChildren();
+            }
+            final Node node = Objects.requireNonNull(this.node);
+            return this.kind == MAP ? node.childrenMap().values() : node.childrenList();
+        }
+
+        @Nullable Node child(final Object key) {
+            if (this.value != null) {
+                return this.value.child(key);
+            }
+            return Objects.requireNonNull(this.node).childrenMap().get(key);
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A difference between two trees, found by {@link Node#diff(Node)} at a path relative to the compared nodes.
+ */
+public final class NodeDifference {
+
+    private final Type type;
+    private final NodePath path;
+
+    NodeDifference(final Type type, final NodePath path) {
+        Check.notNull(type, "type");
+        Check.notNull(path, "path");
+        this.type = type;
+        this.path = path;
+    }
+
+    public @NotNull Type type() {
+        return this.type;
+    }
+
+    public @NotNull NodePath path() {
+        return this.path;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof NodeDifference that)) {
+            return false;
+        }
+
+        return this.type == that.type && this.path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.type, this.path);
+    }
+
+    @Override
+    public String toString() {
+        return this.type + " " + this.path;
+    }
+
+    /**
+     * The kinds of differences. Added, removed and retyped nodes are reported once, without their descendants.
+     */
+    public enum Type {
+
+        /**
+         * The node only exists in the other tree.
+         */
+        ADDED,
+        /**
+         * The node only exists in this tree.
+         */
+        REMOVED,
+        /**
+         * Both nodes are scalars with different values.
+         */
+        CHANGED,
+        /**
+         * The nodes are of different types, like a map and a list.
+         */
+        TYPE_CHANGED
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// the subscriptions of one tree, kept by its root. Changes are collected per thread while a mutation runs and handed
+// to the listeners as one batch once the outermost mutation completes.
+final class NodeEvents {
+
+    // while nobody subscribed to any tree, mutations skip all bookkeeping after reading this counter
+    private static final AtomicInteger SUBSCRIPTIONS = new AtomicInteger();
+    private static final ThreadLocal<Batch> CURRENT = new ThreadLocal<>();
+
+    private final Executor executor;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    NodeEvents(final Executor executor) {
+        this.executor = executor;
+    }
+
+    static NodeSubscription subscribe(final AbstractNode<?, ?> node, final NodeListener listener) {
+        final AbstractNode<?, ?> root = root(node);
+        final Subscription subscription = new Subscription(root.events(), path(node, depth(node)), listener);
+        subscription.events.subscriptions.add(subscription);
+        SUBSCRIPTIONS.incrementAndGet();
+        return subscription;
+    }
+
+    // opens a batch on this thread, or joins the one already open
+    static @Nullable Batch begin() {
+        if (SUBSCRIPTIONS.get() == 0) {
+            return null;
+        }
+        Batch batch = CURRENT.get();
+        if (batch == null) {
+            batch = new Batch();
+            CURRENT.set(batch);
+        }
+        batch.enter();
+        return batch;
+    }
+
+    static void end(final @Nullable Batch batch) {
+        if (batch != null && batch.exit()) {
+            CURRENT.remove();
+            batch.flush();
+        }
+    }
+
+    static @Nullable Batch current() {
+        return SUBSCRIPTIONS.get() == 0 ? null : CURRENT.get();
+    }
+
+    // lets work forked from a mutation record into the batch of the mutation
+    static Runnable join(final @Nullable Batch batch, final Runnable work) {
+        if (batch == null) {
+            return work;
+        }
+        return () -> {
+            final @Nullable Batch previous = CURRENT.get();
+            CURRENT.set(batch);
+            try {
+                work.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    static void record(final AbstractNode<?, ?> node, final NodeChange.Type type) {
+        if (SUBSCRIPTIONS.get() == 0) {
+            return;
+        }
+        final @Nullable NodeEvents events = root(node).events;
+        if (events == null || events.subscriptions.isEmpty()) {
+            return;
+        }
+
+        final NodeChange change = new NodeChange(type, path(node, depth(node)));
+        final @Nullable Batch batch = CURRENT.get();
+        if (batch == null) {
+            events.deliver(List.of(change));
+        } else {
+            batch.add(events, change);
+        }
+    }
+
+    private void deliver(final List<NodeChange> changes) {
+        for (final Subscription subscription : this.subscriptions) {
+            final NodePath scope = subscription.scope;
+            @Nullable List<NodeChange> selected = null;
+            for (final NodeChange change : changes) {
+                // changes of ancestors replace the subscribed node as well
+                if (change.path().startsWith(scope) || scope.startsWith(change.path())) {
+                    if (selected == null) {
+                        selected = new ArrayList<>();
+                    }
+                    selected.add(change);
+                }
+            }
+            if (selected != null) {
+                final List<NodeChange> delivered = Collections.unmodifiableList(selected);
+                this.executor.execute(() -> subscription.listener.changed(delivered));
+            }
+        }
+    }
+
+    // a change of a node covers every change below it in the same batch
+    private static List<NodeChange> coalesce(final Collection<NodeChange> changes) {
+        final Set<NodePath> paths = new HashSet<>();
+        for (final NodeChange change : changes) {
+            paths.add(change.path());
+        }
+        final List<NodeChange> coalesced = new ArrayList<>(changes.size());
+        for (final NodeChange change : changes) {
+            if (!covered(change.path(), paths)) {
+                coalesced.add(change);
+            }
+        }
+        return coalesced;
+    }
+
+    private static boolean covered(final NodePath path, final Set<NodePath> paths) {
+        for (@Nullable NodePath parent = path.parent(); parent != null; parent = parent.parent()) {
+            if (paths.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static AbstractNode<?, ?> root(final AbstractNode<?, ?> node) {
+        AbstractNode<?, ?> root = node;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return root;
+    }
+
+    private static int depth(final AbstractNode<?, ?> node) {
+        int depth = 0;
+        for (AbstractNode<?, ?> parent = node.parent; parent != null; parent = parent.parent) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static NodePath path(final AbstractNode<?, ?> node, final int depth) {
+        final Object[] keys = new Object[depth];
+        AbstractNode<?, ?> pointer = node;
+        for (int i = depth - 1; i >= 0; i--) {
+            keys[i] = pointer.key();
+            pointer = pointer.parent;
+        }
+        return NodePath.wrap(keys);
+    }
+
+    // the changes recorded on one thread, and on the threads its work was forked to
+    static final class Batch {
+
+        private final Map<NodeEvents, Set<NodeChange>> changes = new LinkedHashMap<>();
+        private int depth;
+
+        synchronized void enter() {
+            this.depth++;
+        }
+
+        synchronized boolean exit() {
+            return --this.depth == 0;
+        }
+
+        synchronized void add(final NodeEvents events, final NodeChange change) {
+            this.changes.computeIfAbsent(events, key -> new LinkedHashSet<>()).add(change);
+        }
+
+        void flush() {
+            final List<Map.Entry<NodeEvents, Set<NodeChange>>> changes;
+            synchronized (this) {
+                changes = new ArrayList<>(this.changes.entrySet());
+            }
+            for (final Map.Entry<NodeEvents, Set<NodeChange>> entry : changes) {
+                entry.getKey().deliver(coalesce(entry.getValue()));
+            }
+        }
+    }
+
+    private static final class Subscription implements NodeSubscription {
+
+        private final NodeEvents events;
+        private final NodePath scope;
+        private final NodeListener listener;
+
+        Subscription(final NodeEvents events, final NodePath scope, final NodeListener listener) {
+            this.events = events;
+            this.scope = scope;
+            this.listener = listener;
+        }
+
+        @Override
+        public void close() {
+            if (this.events.subscriptions.remove(this)) {
+                SUBSCRIPTIONS.decrementAndGet();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// splits bulk work on trees by subtree. Subtrees below the threshold are batched into tasks of about the threshold,
+// larger ones get a task of their own and split again when processed.
+final class NodeForkJoin {
+
+    private NodeForkJoin() {
+
+    }
+
+    // counts the nodes of the tree, but stops descending once the limit is reached
+    static int weight(final Node node, final int limit) {
+        final Counter counter = new Counter(limit);
+        NodeWalker.read(node, counter);
+        return counter.count;
+    }
+
+    static <N extends ScopedNode<N>, A extends AbstractNode<N, A>> NodeValue<N, A> copy(final ForkJoinPool pool,
+        final Node source, final A target) {
+        final Iterable<? extends Node> children;
+        final NodeValue<N, A> value;
+        final boolean map;
+        if (source instanceof AbstractNode<?, ?> abstractNode) {
+            // read the value once, so a concurrent replacement cannot mix two values
+            final NodeValue<?, ?> sourceValue = abstractNode.value;
+            if (sourceValue instanceof MapNodeValue<?, ?> sourceMap) {
+                children = sourceValue.iterateChildren();
+                value = new MapNodeValue<>(target, sourceMap.children().size());
+                map = true;
+            } else if (sourceValue instanceof ListNodeValue<?, ?> sourceList) {
+                children = sourceValue.iterateChildren();
+                value = new ListNodeValue<>(target, sourceList.children().size());
+                map = false;
+            } else {
+                return NodeCopier.copySequential(source, target);
+            }
+        } else if (source.isMap()) {
+            children = source.childrenMap().values();
+            value = new MapNodeValue<>(target);
+            map = true;
+        } else if (source.isList()) {
+            children = source.childrenList();
+            value = new ListNodeValue<>(target);
+            map = false;
+        } else {
+            return NodeCopier.copySequential(source, target);
+        }
+
+        final int threshold = target.options().parallelThreshold();
+        final List<Runnable> work = new ArrayList<>();
+        final List<Integer> weights = new ArrayList<>();
+        int index = 0;
+        for (final Node child : children) {
+            if (NodeCopier.isNull(child)) {
+                continue;
+            }
+            final Object key = map ? target.options().internKey(child.key()) : index++;
+            final A copy = target.createNode(key);
+            copy.attached = true;
+            value.putChild(key, copy);
+            work.add(() -> copy.value = NodeCopier.copy(child, copy));
+            weights.add(weight(child, threshold));
+        }
+        invoke(pool, work, weights, threshold);
+        return value;
+    }
+
+    static void invoke(final ForkJoinPool pool, final List<Runnable> work, final List<Integer> weights,
+        final int threshold) {
+        final List<Batch> batches = new ArrayList<>();
+        Batch small = new Batch();
+        for (int i = 0; i < work.size(); i++) {
+            final int weight = weights.get(i);
+            if (weight >= threshold) {
+                final Batch large = new Batch();
+                large.work.add(work.get(i));
+                batches.add(large);
+                continue;
+            }
+            small.work.add(work.get(i));
+            small.weight += weight;
+            if (small.weight >= threshold) {
+                batches.add(small);
+                small = new Batch();
+            }
+        }
+        if (!small.work.isEmpty()) {
+            batches.add(small);
+        }
+
+        // changes recorded by the work belong to the mutation that forked it
+        final NodeEvents.@Nullable Batch events = NodeEvents.current();
+        if (events != null) {
+            for (final Batch batch : batches) {
+                batch.work.replaceAll(runnable -> NodeEvents.join(events, runnable));
+            }
+        }
+
+        // tasks already running on the pool fork into it directly, everything else enters it as a whole
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(batches);
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(batches);
+                }
+            });
+        }
+    }
+
+    private static final class Batch extends RecursiveAction {
+
+        private final List<Runnable> work = new ArrayList<>();
+        private int weight;
+
+        @Override
+        protected void compute() {
+            for (final Runnable runnable : this.work) {
+                runnable.run();
+            }
+        }
+    }
+
+    private static final class Counter implements NodeVisitor {
+
+        private final int limit;
+        private int count;
+
+        private Counter(final int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean enterMap(@NotNull Node node) {
+            return ++this.count < this.limit;
+        }
+
+        @Override
+        public boolean enterList(@NotNull Node node) {
+            return ++this.count < this.limit;
+        }
+
+        @Override
+        public void visitScalar(@NotNull Node node) {
+            this.count++;
+        }
+    }
+
+}
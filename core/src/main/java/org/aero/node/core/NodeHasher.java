@@ -0,0 +1,322 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+
+// computes 64 bit hashes of the values of nodes bottom up and caches them in the nodes. A mutation drops the cached
+// hashes of the node and its ancestors, so unchanged subtrees are never hashed twice. The hashes are wide enough to
+// take a match as equal values, and the values of snapshots hash the same as equal values of nodes.
+//
+// The state of a node holds a flag if its hash is valid, a flag if it is being computed, a flag if it is being
+// written and an epoch above. Dropping a hash advances the epoch, so a computation racing a mutation cannot cache its
+// result. A node that is neither valid nor being computed has no valid ancestor either, so dropping stops there.
+final class NodeHasher {
+
+    private static final long VALID = 1L;
+    private static final long COMPUTING = 1L << 1;
+    private static final long WRITING = 1L << 2;
+    private static final long FLAGS = VALID | COMPUTING | WRITING;
+    private static final int EPOCH_SHIFT = 3;
+
+    private static final long MAP_SEED = 0x4D41505348415348L;
+    private static final long LIST_SEED = 0x4C49535448415348L;
+    private static final long SCALAR_SEED = 0x5343414C48415348L;
+    private static final long PRIME = 0x100000001B3L;
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(AbstractNode.class, "hashState", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private NodeHasher() {
+
+    }
+
+    static void invalidate(final AbstractNode<?, ?> node) {
+        for (@Nullable AbstractNode<?, ?> pointer = node; pointer != null; pointer = pointer.parent) {
+            if (!drop(pointer)) {
+                return;
+            }
+        }
+    }
+
+    // drops the cached hash of a node that left its tree, its former ancestors are dropped by the removal itself
+    static void forget(final AbstractNode<?, ?> node) {
+        drop(node);
+    }
+
+    // false if there was nothing to drop
+    private static boolean drop(final AbstractNode<?, ?> node) {
+        while (true) {
+            final long state = node.hashState;
+            if ((state & FLAGS) == 0) {
+                return false;
+            }
+            if ((state & WRITING) != 0) {
+                // a hash is stored between two writes of the state, which a new epoch must not overtake
+                Thread.onSpinWait();
+                continue;
+            }
+            if (STATE.compareAndSet(node, state, ((state >>> EPOCH_SHIFT) + 1) << EPOCH_SHIFT)) {
+                return true;
+            }
+        }
+    }
+
+    // whether both hashes are cached and equal, which is taken as equal values
+    static boolean same(final AbstractNode<?, ?> left, final AbstractNode<?, ?> right) {
+        final long leftState = left.hashState;
+        final long rightState = right.hashState;
+        if ((leftState & rightState & VALID) == 0) {
+            return false;
+        }
+        final boolean same = left.hash == right.hash;
+        return left.hashState == leftState && right.hashState == rightState && same;
+    }
+
+    // whether both hashes are cached and differ, which proves the values unequal without comparing them
+    static boolean differ(final AbstractNode<?, ?> left, final AbstractNode<?, ?> right) {
+        final long leftState = left.hashState;
+        final long rightState = right.hashState;
+        if ((leftState & rightState & VALID) == 0) {
+            return false;
+        }
+        final boolean differ = left.hash != right.hash;
+        return left.hashState == leftState && right.hashState == rightState && differ;
+    }
+
+    static long hash(final AbstractNode<?, ?> node) {
+        final Deque<Frame> stack = new ArrayDeque<>();
+        Frame frame = begin(node);
+        long result = 0;
+        while (true) {
+            if (frame.children != null && frame.children.hasNext()) {
+                stack.push(frame);
+                frame = begin(frame.children.next());
+                continue;
+            }
+
+            result = frame.finish();
+            final @Nullable Frame parent = stack.poll();
+            if (parent == null) {
+                return result;
+            }
+            parent.add(frame.node.key, result);
+            frame = parent;
+        }
+    }
+
+    // marks the node as being computed, unless its hash is valid already
+    private static Frame begin(final AbstractNode<?, ?> node) {
+        while (true) {
+            final long state = node.hashState;
+            if ((state & VALID) != 0) {
+                final long hash = node.hash;
+                if (node.hashState == state) {
+                    return new Frame(node, state, hash);
+                }
+                continue;
+            }
+            if ((state & WRITING) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            final long computing = state | COMPUTING;
+            if (state == computing || STATE.compareAndSet(node, state, computing)) {
+                return new Frame(node, computing, node.value);
+            }
+        }
+    }
+
+    // hashes the value of a snapshot, a HashTrieMap or PersistentVector caches its hash as it is immutable
+    static long hash(final @Nullable Object value) {
+        final Deque<SnapshotFrame> stack = new ArrayDeque<>();
+        SnapshotFrame frame = new SnapshotFrame(null, value);
+        long result = 0;
+        while (true) {
+            if (frame.children != null && frame.children.hasNext()) {
+                stack.push(frame);
+                final Object child = frame.children.next();
+                frame = child instanceof Map.Entry<?, ?> entry
+                    ? new SnapshotFrame(entry.getKey(), entry.getValue()) : new SnapshotFrame(null, child);
+                continue;
+            }
+
+            result = frame.finish();
+            final @Nullable SnapshotFrame parent = stack.poll();
+            if (parent == null) {
+                return result;
+            }
+            parent.add(frame.key, result);
+            frame = parent;
+        }
+    }
+
+    private static long scalar(final Object value) {
+        final long bits;
+        if (value instanceof String string) {
+            // String.hashCode collides for short strings, so strings get a wide hash of their own
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < string.length(); i++) {
+                hash = (hash ^ string.charAt(i)) * PRIME;
+            }
+            bits = hash;
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+            || value instanceof Byte) {
+            bits = ((Number) value).longValue();
+        } else if (value instanceof Double number) {
+            bits = Double.doubleToLongBits(number);
+        } else if (value instanceof Float number) {
+            bits = Float.floatToIntBits(number);
+        } else {
+            bits = value.hashCode();
+        }
+        // equal numbers of different types are unequal values
+        return mix(bits ^ ((long) value.getClass().getName().hashCode() << 32));
+    }
+
+    private static long entry(final @Nullable Object key, final long hash) {
+        // map entries are unordered, so they are summed up. Each entry is mixed first, otherwise swapping the values
+        // of two keys keeps the sum
+        return mix((key == null ? 0 : scalar(key)) * PRIME + hash);
+    }
+
+    // a container never hashes to 0, which marks the hash of a snapshot value as not computed
+    private static long seal(final long hash) {
+        final long mixed = mix(hash);
+        return mixed == 0 ? 1 : mixed;
+    }
+
+    // the finalizer of murmur3, spreading every input bit over the whole hash
+    private static long mix(final long hash) {
+        long mixed = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    private static final class Frame {
+
+        private final AbstractNode<?, ?> node;
+        private final long state;
+        private final boolean map;
+        private final @Nullable Iterator<? extends AbstractNode<?, ?>> children;
+        private long hash;
+
+        // a frame of a valid hash
+        Frame(final AbstractNode<?, ?> node, final long state, final long hash) {
+            this.node = node;
+            this.state = state;
+            this.map = false;
+            this.children = null;
+            this.hash = hash;
+        }
+
+        Frame(final AbstractNode<?, ?> node, final long state, final NodeValue<?, ?> value) {
+            this.node = node;
+            this.state = state;
+            this.map = value instanceof MapNodeValue<?, ?>;
+            if (this.map) {
+                this.children = value.iterateChildren().iterator();
+                this.hash = MAP_SEED;
+            } else if (value instanceof ListNodeValue<?, ?>) {
+                this.children = value.iterateChildren().iterator();
+                this.hash = LIST_SEED;
+            } else {
+                this.children = null;
+                final @Nullable Object scalar = value instanceof NullNodeValue ? null : value.get();
+                this.hash = scalar == null ? 0 : SCALAR_SEED ^ scalar(scalar);
+            }
+        }
+
+        void add(final @Nullable Object key, final long hash) {
+            this.hash = this.map ? this.hash + entry(key, hash) : this.hash * PRIME + hash;
+        }
+
+        long finish() {
+            if ((this.state & VALID) != 0) {
+                return this.hash;
+            }
+            final long hash = this.children != null ? seal(this.hash) : this.hash;
+            // a mutation since the computation began advanced the epoch, the hash is returned but not cached
+            final long epoch = this.state & ~FLAGS;
+            if (STATE.compareAndSet(this.node, this.state, epoch | WRITING)) {
+                this.node.hash = hash;
+                this.node.hashState = epoch | VALID;
+            }
+            return hash;
+        }
+    }
+
+    private static final class SnapshotFrame {
+
+        private final @Nullable Object key;
+        private final @Nullable Object value;
+        private final @Nullable Iterator<?> children;
+        private long hash;
+
+        SnapshotFrame(final @Nullable Object key, final @Nullable Object value) {
+            this.key = key;
+            this.value = value;
+            final long cached = value instanceof HashTrieMap<?, ?> map ? map.hash
+                : value instanceof PersistentVector<?> vector ? vector.hash : 0;
+            if (cached != 0) {
+                this.children = null;
+                this.hash = cached;
+            } else if (value instanceof HashTrieMap<?, ?> map) {
+                this.children = map.iterator();
+                this.hash = MAP_SEED;
+            } else if (value instanceof PersistentVector<?> vector) {
+                this.children = vector.iterator();
+                this.hash = LIST_SEED;
+            } else {
+                this.children = null;
+                this.hash = value == null ? 0 : SCALAR_SEED ^ scalar(value);
+            }
+        }
+
+        void add(final @Nullable Object key, final long hash) {
+            this.hash = this.value instanceof HashTrieMap<?, ?> ? this.hash + entry(key, hash) : this.hash * PRIME + hash;
+        }
+
+        long finish() {
+            if (this.children == null) {
+                return this.hash;
+            }
+            final long hash = seal(this.hash);
+            if (this.value instanceof HashTrieMap<?, ?> map) {
+                map.hash = hash;
+            } else {
+                ((PersistentVector<?>) this.value).hash = hash;
+            }
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Receives the changes of a subtree, see {@link Node#subscribe(NodeListener)}.
+ */
+@FunctionalInterface
+public interface NodeListener {
+
+    /**
+     * Called with the changes made by one mutation of the tree, in the order they were made. Changes below a node
+     * that changed in the same batch are left out.
+     *
+     * @param changes the changes of the subscribed node, its descendants or its ancestors
+     */
+    void changed(@NotNull List<NodeChange> changes);
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.aero.conversion.core.ConversionBus;
+import org.aero.conversion.core.ObjectMappingConversionBus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Immutable settings shared by every node of a tree.
+ */
+public final class NodeOptions {
+
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    private static final NodeOptions DEFAULTS = new NodeOptions(ObjectMappingConversionBus.createDefault(), false,
+        null, null, DEFAULT_PARALLEL_THRESHOLD, Runnable::run);
+
+    private final ConversionBus conversionBus;
+    private final boolean copyOnWrite;
+    private final @Nullable KeyPool keyPool;
+    private final @Nullable ForkJoinPool forkJoinPool;
+    private final int parallelThreshold;
+    private final Executor listenerExecutor;
+
+    private NodeOptions(ConversionBus conversionBus, boolean copyOnWrite, @Nullable KeyPool keyPool,
+        @Nullable ForkJoinPool forkJoinPool, int parallelThreshold, Executor listenerExecutor) {
+        this.conversionBus = conversionBus;
+        this.copyOnWrite = copyOnWrite;
+        this.keyPool = keyPool;
+        this.forkJoinPool = forkJoinPool;
+        this.parallelThreshold = parallelThreshold;
+        this.listenerExecutor = listenerExecutor;
+    }
+
+    public static @NotNull NodeOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public @NotNull ConversionBus conversionBus() {
+        return this.conversionBus;
+    }
+
+    public @NotNull NodeOptions conversionBus(@NotNull ConversionBus conversionBus) {
+        Check.notNull(conversionBus, "conversionBus");
+        if (this.conversionBus == conversionBus) {
+            return this;
+        }
+        return new NodeOptions(conversionBus, this.copyOnWrite, this.keyPool, this.forkJoinPool,
+            this.parallelThreshold, this.listenerExecutor);
+    }
+
+    public boolean copyOnWrite() {
+        return this.copyOnWrite;
+    }
+
+    /**
+     * Copies made with this option share their values with the original node in constant time. Either side duplicates
+     * one level of the shared values along the written path on its first mutation, and the copy does so as well when
+     * it hands out children.
+     *
+     * @param copyOnWrite whether copies share their values with the original
+     * @return options with the given copy mode
+     */
+    public @NotNull NodeOptions copyOnWrite(boolean copyOnWrite) {
+        if (this.copyOnWrite == copyOnWrite) {
+            return this;
+        }
+        return new NodeOptions(this.conversionBus, copyOnWrite, this.keyPool, this.forkJoinPool,
+            this.parallelThreshold, this.listenerExecutor);
+    }
+
+    public @Nullable KeyPool keyPool() {
+        return this.keyPool;
+    }
+
+    /**
+     * Map keys entering a tree in bulk, through {@link Node#setRaw(Object)} with a map, {@link Node#from(Node)},
+     * {@link Node#mergeFrom(Node)} or one of the readers, are interned in the given pool.
+     *
+     * @param keyPool the pool to intern keys in, or null to store keys as they are
+     * @return options with the given key pool
+     */
+    public @NotNull NodeOptions keyPool(@Nullable KeyPool keyPool) {
+        if (this.keyPool == keyPool) {
+            return this;
+        }
+        return new NodeOptions(this.conversionBus, this.copyOnWrite, keyPool, this.forkJoinPool,
+            this.parallelThreshold, this.listenerExecutor);
+    }
+
+    public @Nullable ForkJoinPool forkJoinPool() {
+        return this.forkJoinPool;
+    }
+
+    /**
+     * Deep copies made by {@link Node#copy()} and {@link Node#from(Node)}, and the children merged by
+     * {@link Node#mergeFrom(Node)}, are split by subtree and processed on the given pool once they reach the
+     * {@link #parallelThreshold(int) parallel threshold}. The resulting trees are identical to the sequential ones.
+     *
+     * @param forkJoinPool the pool to process large trees on, or null to always work on the calling thread
+     * @return options with the given pool
+     */
+    public @NotNull NodeOptions forkJoinPool(@Nullable ForkJoinPool forkJoinPool) {
+        if (this.forkJoinPool == forkJoinPool) {
+            return this;
+        }
+        return new NodeOptions(this.conversionBus, this.copyOnWrite, this.keyPool, forkJoinPool,
+            this.parallelThreshold, this.listenerExecutor);
+    }
+
+    public int parallelThreshold() {
+        return this.parallelThreshold;
+    }
+
+    /**
+     * Sets the number of nodes below which trees are processed sequentially even if a
+     * {@link #forkJoinPool(ForkJoinPool) pool} is set. Smaller subtrees are also batched into tasks of about this
+     * size.
+     *
+     * @param parallelThreshold the minimum number of nodes per parallel task
+     * @return options with the given threshold
+     */
+    public @NotNull NodeOptions parallelThreshold(int parallelThreshold) {
+        Check.argCondition(parallelThreshold < 1, "The parallel threshold must be positive");
+        if (this.parallelThreshold == parallelThreshold) {
+            return this;
+        }
+        return new NodeOptions(this.conversionBus, this.copyOnWrite, this.keyPool, this.forkJoinPool,
+            parallelThreshold, this.listenerExecutor);
+    }
+
+    public @NotNull Executor listenerExecutor() {
+        return this.listenerExecutor;
+    }
+
+    /**
+     * Sets the executor that hands batches of changes to the {@link NodeListener listeners} of a tree. By default,
+     * listeners are called on the mutating thread once its mutation completes.
+     *
+     * @param listenerExecutor the executor to notify listeners on
+     * @return options with the given executor
+     */
+    public @NotNull NodeOptions listenerExecutor(@NotNull Executor listenerExecutor) {
+        Check.notNull(listenerExecutor, "listenerExecutor");
+        if (this.listenerExecutor == listenerExecutor) {
+            return this;
+        }
+        return new NodeOptions(this.conversionBus, this.copyOnWrite, this.keyPool, this.forkJoinPool,
+            this.parallelThreshold, listenerExecutor);
+    }
+
+    Object internKey(final Object key) {
+        final @Nullable KeyPool keyPool = this.keyPool;
+        return keyPool == null ? key : keyPool.intern(key);
+    }
+
+}
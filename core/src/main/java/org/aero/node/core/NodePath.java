@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable path of keys, validated once so it can be resolved repeatedly without further checks or allocations.
+ */
+public final class NodePath implements Iterable<Object> {
+
+    private static final NodePath ROOT = new NodePath(new Object[0]);
+
+    private final Object[] keys;
+    private int hash;
+
+    private NodePath(Object[] keys) {
+        this.keys = keys;
+    }
+
+    public static @NotNull NodePath root() {
+        return ROOT;
+    }
+
+    public static @NotNull NodePath of(Object @NotNull ... keys) {
+        Check.notNull(keys, "keys");
+        if (keys.length == 0) {
+            return ROOT;
+        }
+        final Object[] copy = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            copy[i] = key(keys[i]);
+        }
+        return new NodePath(copy);
+    }
+
+    public static @NotNull NodePath of(@NotNull Iterable<?> keys) {
+        Check.notNull(keys, "keys");
+        if (keys instanceof NodePath path) {
+            return path;
+        }
+        final List<Object> copy = new ArrayList<>();
+        for (final Object key : keys) {
+            copy.add(key(key));
+        }
+        return copy.isEmpty() ? ROOT : new NodePath(copy.toArray());
+    }
+
+    /**
+     * Parses a path like {@code servers[3].limits.maxConnections}. Keys are separated by dots, list indexes and
+     * quoted keys like {@code ["example.org"]} are written in brackets. Parsed paths are cached.
+     *
+     * @param path the path to parse
+     * @return the parsed path
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public static @NotNull NodePath parse(@NotNull String path) {
+        Check.notNull(path, "path");
+        return NodePathParser.parse(path);
+    }
+
+    // takes over keys that are already valid
+    static NodePath wrap(final Object[] keys) {
+        return keys.length == 0 ? ROOT : new NodePath(keys);
+    }
+
+    // string keys are interned, so equal paths resolve against map keys that are mostly identical instances
+    private static Object key(@Nullable Object key) {
+        Check.notNull(key, "element in path");
+        return key instanceof String string ? string.intern() : key;
+    }
+
+    public int size() {
+        return this.keys.length;
+    }
+
+    public boolean isRoot() {
+        return this.keys.length == 0;
+    }
+
+    public @NotNull Object get(int index) {
+        return this.keys[index];
+    }
+
+    public @Nullable Object lastKey() {
+        return this.keys.length == 0 ? null : this.keys[this.keys.length - 1];
+    }
+
+    /**
+     * Checks whether this path equals the given path or lies below it.
+     *
+     * @param prefix the path to compare with
+     * @return true if this path starts with all keys of the prefix
+     */
+    public boolean startsWith(@NotNull NodePath prefix) {
+        Check.notNull(prefix, "prefix");
+        if (prefix.keys.length > this.keys.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.keys.length; i++) {
+            if (!this.keys[i].equals(prefix.keys[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public @Nullable NodePath parent() {
+        if (this.keys.length == 0) {
+            return null;
+        }
+        return this.keys.length == 1 ? ROOT : new NodePath(Arrays.copyOf(this.keys, this.keys.length - 1));
+    }
+
+    public @NotNull NodePath child(@NotNull Object key) {
+        final Object[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+        keys[this.keys.length] = key(key);
+        return new NodePath(keys);
+    }
+
+    @Override
+    public @NotNull Iterator<Object> iterator() {
+        return new Iterator<>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < NodePath.this.keys.length;
+            }
+
+            @Override
+            public Object next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return NodePath.this.keys[this.index++];
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof NodePath that)) {
+            return false;
+        }
+
+        return Arrays.equals(this.keys, that.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = Arrays.hashCode(this.keys);
+            this.hash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.keys);
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses dotted and indexed path strings like {@code servers[3].limits.maxConnections}, keys containing special
+ * characters can be quoted within brackets, like {@code hosts["example.org"]}.
+ */
+final class NodePathParser {
+
+    private static final int CACHE_SIZE = 4096;
+    private static final ConcurrentHashMap<String, NodePath> CACHE = new ConcurrentHashMap<>();
+
+    private final String path;
+    private int position;
+
+    private NodePathParser(String path) {
+        this.path = path;
+    }
+
+    static NodePath parse(String path) {
+        final NodePath cached = CACHE.get(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        final NodePath parsed = new NodePathParser(path).parse();
+        if (CACHE.size() >= CACHE_SIZE) {
+            evict();
+        }
+        CACHE.put(path, parsed);
+        return parsed;
+    }
+
+    // drops an arbitrary quarter of the cache, the cache only has to stay bounded
+    private static void evict() {
+        int remaining = CACHE_SIZE / 4;
+        final Iterator<String> iterator = CACHE.keySet().iterator();
+        while (remaining-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private NodePath parse() {
+        final List<Object> keys = new ArrayList<>();
+        final int length = this.path.length();
+        boolean expectKey = true;
+        while (this.position < length) {
+            final char c = this.path.charAt(this.position);
+            if (c == '[') {
+                this.position++;
+                keys.add(this.bracketKey());
+                expectKey = false;
+            } else if (c == '.') {
+                if (expectKey) {
+                    throw this.error("Empty key");
+                }
+                this.position++;
+                expectKey = true;
+                if (this.position == length) {
+                    throw this.error("Path must not end with a dot");
+                }
+            } else {
+                if (!expectKey) {
+                    throw this.error("Expected '.' or '['");
+                }
+                keys.add(this.plainKey());
+                expectKey = false;
+            }
+        }
+        return NodePath.of(keys);
+    }
+
+    private String plainKey() {
+        final int start = this.position;
+        while (this.position < this.path.length()) {
+            final char c = this.path.charAt(this.position);
+            if (c == '.' || c == '[') {
+                break;
+            }
+            if (c == ']') {
+                throw this.error("Unexpected ']'");
+            }
+            this.position++;
+        }
+        return this.path.substring(start, this.position);
+    }
+
+    private Object bracketKey() {
+        if (this.position >= this.path.length()) {
+            throw this.error("Unterminated '['");
+        }
+        final char first = this.path.charAt(this.position);
+        final Object key;
+        if (first == '"' || first == '\'') {
+            this.position++;
+            key = this.quotedKey(first);
+        } else {
+            final int start = this.position;
+            while (this.position < this.path.length() && Character.isDigit(this.path.charAt(this.position))) {
+                this.position++;
+            }
+            if (start == this.position) {
+                throw this.error("Expected an index or a quoted key");
+            }
+            try {
+                key = Integer.parseInt(this.path, start, this.position, 10);
+            } catch (NumberFormatException e) {
+                throw this.error("Index out of range");
+            }
+        }
+        if (this.position >= this.path.length() || this.path.charAt(this.position) != ']') {
+            throw this.error("Expected ']'");
+        }
+        this.position++;
+        return key;
+    }
+
+    private String quotedKey(char quote) {
+        final StringBuilder builder = new StringBuilder();
+        while (this.position < this.path.length()) {
+            final char c = this.path.charAt(this.position++);
+            if (c == quote) {
+                return builder.toString();
+            }
+            if (c == '\\') {
+                if (this.position >= this.path.length()) {
+                    break;
+                }
+                builder.append(this.path.charAt(this.position++));
+            } else {
+                builder.append(c);
+            }
+        }
+        throw this.error("Unterminated quoted key");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at index " + this.position + " of path '" + this.path + "'");
+    }
+
+}
@@ -32,7 +32,15 @@
 
     Iterable<A> iterateChildren();
 
-    NodeValue<N, A> copy(A holder);
+    @Nullable A holder();
+
+    boolean isShared();
+
+    void share();
+
+    // a copy of this shared value for the given holder. The holder of this value takes over its live children, which
+    // happens once, so every later call for it returns the same value
+    NodeValue<N, A> unshare(A holder);
 
     boolean isEmpty();
 
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the nodes of a tree walked by {@link Node#visit(NodeVisitor)}. Maps and lists are entered before their
+ * children and left after them, all other nodes are passed as scalars. The walk keeps its own stack, so trees of any
+ * depth can be visited.
+ */
+public interface NodeVisitor {
+
+    /**
+     * Called when a map node is reached.
+     *
+     * @param node the map node
+     * @return whether to visit the children of the node, {@link #leaveMap(Node)} is called either way
+     */
+    default boolean enterMap(@NotNull Node node) {
+        return true;
+    }
+
+    default void leaveMap(@NotNull Node node) {
+
+    }
+
+    default boolean enterList(@NotNull Node node) {
+        return true;
+    }
+
+    default void leaveList(@NotNull Node node) {
+
+    }
+
+    default void visitScalar(@NotNull Node node) {
+
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+// walks a tree with an explicit stack, reading the children of AbstractNodes straight from their values
+final class NodeWalker {
+
+    private NodeWalker() {
+
+    }
+
+    // hands the visitor nodes it may write to, so a copy unshares the values it visits
+    static void walk(final Node root, final NodeVisitor visitor) {
+        walk(root, visitor, true);
+    }
+
+    // for visitors that only read, which may see the children of the node a value is shared with
+    static void read(final Node root, final NodeVisitor visitor) {
+        walk(root, visitor, false);
+    }
+
+    private static void walk(final Node root, final NodeVisitor visitor, final boolean local) {
+        final Deque<Frame> stack = new ArrayDeque<>();
+        visit(root, visitor, stack, local);
+        while (!stack.isEmpty()) {
+            final Frame frame = stack.peek();
+            if (frame.children.hasNext()) {
+                visit(frame.children.next(), visitor, stack, local);
+                continue;
+            }
+            stack.pop();
+            if (frame.map) {
+                visitor.leaveMap(frame.node);
+            } else {
+                visitor.leaveList(frame.node);
+            }
+        }
+    }
+
+    private static void visit(final Node node, final NodeVisitor visitor, final Deque<Frame> stack,
+        final boolean local) {
+        final Iterator<? extends Node> children;
+        final boolean map;
+        if (node instanceof AbstractNode<?, ?> abstractNode) {
+            // read the value once, so a concurrent replacement cannot mix two values
+            NodeValue<?, ?> value = abstractNode.value;
+            if (local && value.isShared() && value.holder() != abstractNode) {
+                value = abstractNode.localValue();
+            }
+            if (value instanceof MapNodeValue<?, ?> || value instanceof ListNodeValue<?, ?>) {
+                children = value.iterateChildren().iterator();
+                map = value instanceof MapNodeValue<?, ?>;
+            } else {
+                visitor.visitScalar(node);
+                return;
+            }
+        } else if (node.isMap()) {
+            children = node.childrenMap().values().iterator();
+            map = true;
+        } else if (node.isList()) {
+            children = node.childrenList().iterator();
+            map = false;
+        } else {
+            visitor.visitScalar(node);
+            return;
+        }
+
+        if (map ? visitor.enterMap(node) : visitor.enterList(node)) {
+            stack.push(new Frame(node, children, map));
+        } else if (map) {
+            visitor.leaveMap(node);
+        } else {
+            visitor.leaveList(node);
+        }
+    }
+
+    private static final class Frame {
+
+        private final Node node;
+        private final Iterator<? extends Node> children;
+        private final boolean map;
+
+        private Frame(final Node node, final Iterator<? extends Node> children, final boolean map) {
+            this.node = node;
+            this.children = children;
+            this.map = map;
+        }
+    }
+
+}
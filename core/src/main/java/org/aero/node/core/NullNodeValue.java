@@ -65,8 +65,23 @@ public Iterable<A> iterateChildren() {
     }
 
     @Override
-    public NullNodeValue<N, A> copy(final A holder) {
-        return instance();
+    public @Nullable A holder() {
+        return null;
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public void share() {
+        // there is nothing to share
+    }
+
+    @Override
+    public NullNodeValue<N, A> unshare(final A holder) {
+        return this;
     }
 
     @Override
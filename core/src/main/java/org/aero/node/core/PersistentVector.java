@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A persistent vector stored as a 32-way trie with a separate tail, updates return a new vector sharing all untouched
+ * branches with this one.
+ */
+final class PersistentVector<V> implements Iterable<V> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentVector EMPTY = new PersistentVector<>(0, BITS, new Object[0], new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+    // the cached hash of the tree, 0 until NodeHasher computed it
+    volatile long hash;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentVector<V> empty() {
+        return EMPTY;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private int tailOffset() {
+        return this.size < WIDTH ? 0 : ((this.size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= this.tailOffset()) {
+            return this.tail;
+        }
+        Object[] node = this.root;
+        for (int level = this.shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable V get(int index) {
+        if (index < 0 || index >= this.size) {
+            return null;
+        }
+        return (V) this.leafFor(index)[index & MASK];
+    }
+
+    PersistentVector<V> with(int index, V value) {
+        if (index == this.size) {
+            return this.append(value);
+        }
+        if (index < 0 || index > this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        if (index >= this.tailOffset()) {
+            final Object[] tail = this.tail.clone();
+            tail[index & MASK] = value;
+            return new PersistentVector<>(this.size, this.shift, this.root, tail);
+        }
+        return new PersistentVector<>(this.size, this.shift, replace(this.shift, this.root, index, value), this.tail);
+    }
+
+    private static Object[] replace(int level, Object[] node, int index, Object value) {
+        final Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = value;
+        } else {
+            final int child = (index >>> level) & MASK;
+            copy[child] = replace(level - BITS, (Object[]) node[child], index, value);
+        }
+        return copy;
+    }
+
+    PersistentVector<V> append(V value) {
+        // room in the tail
+        if (this.size - this.tailOffset() < WIDTH) {
+            final Object[] tail = new Object[this.tail.length + 1];
+            System.arraycopy(this.tail, 0, tail, 0, this.tail.length);
+            tail[this.tail.length] = value;
+            return new PersistentVector<>(this.size + 1, this.shift, this.root, tail);
+        }
+
+        // the full tail is pushed into the trie
+        Object[] root;
+        int shift = this.shift;
+        if ((this.size >>> BITS) > (1 << this.shift)) {
+            // root overflow
+            root = new Object[] {this.root, newPath(this.shift, this.tail)};
+            shift += BITS;
+        } else {
+            root = this.pushTail(this.shift, this.root, this.tail);
+        }
+        return new PersistentVector<>(this.size + 1, shift, root, new Object[] {value});
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tail) {
+        final int child = ((this.size - 1) >>> level) & MASK;
+        final Object[] copy = new Object[Math.max(parent.length, child + 1)];
+        System.arraycopy(parent, 0, copy, 0, parent.length);
+        if (level == BITS) {
+            copy[child] = tail;
+        } else if (child < parent.length && parent[child] != null) {
+            copy[child] = this.pushTail(level - BITS, (Object[]) parent[child], tail);
+        } else {
+            copy[child] = newPath(level - BITS, tail);
+        }
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        return level == 0 ? node : new Object[] {newPath(level - BITS, node)};
+    }
+
+    PersistentVector<V> withoutIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            return this;
+        }
+        // removal shifts every subsequent element, so the vector is rebuilt
+        PersistentVector<V> result = empty();
+        for (int i = 0; i < this.size; i++) {
+            if (i != index) {
+                result = result.append(this.get(i));
+            }
+        }
+        return result;
+    }
+
+    // the first size elements
+    PersistentVector<V> take(int size) {
+        if (size >= this.size) {
+            return this;
+        }
+        PersistentVector<V> result = empty();
+        for (int i = 0; i < size; i++) {
+            result = result.append(this.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < PersistentVector.this.size;
+            }
+
+            @Override
+            public V next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return PersistentVector.this.get(this.index++);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof PersistentVector<?> that) || this.size != that.size) {
+            return false;
+        }
+
+        for (int i = 0; i < this.size; i++) {
+            if (!Objects.equals(this.get(i), that.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (final V value : this) {
+            hash = 31 * hash + Objects.hashCode(value);
+        }
+        return hash;
+    }
+
+}
@@ -16,16 +16,43 @@
 
 package org.aero.node.core;
 
+import org.aero.conversion.core.ConversionBus;
+import org.aero.conversion.core.exception.ConversionException;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
 
 final class ScalarNodeValue<N extends ScopedNode<N>, A extends AbstractNode<N, A>> implements NodeValue<N, A> {
 
+    static final byte KIND_OBJECT = 0;
+    static final byte KIND_INT = 1;
+    static final byte KIND_LONG = 2;
+    static final byte KIND_DOUBLE = 3;
+    static final byte KIND_BOOLEAN = 4;
+
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(ScalarNodeValue.class, "version", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final A holder;
-    private volatile @Nullable Object value;
+    // kind, bits and value are guarded by the version, which is odd while a write is in progress
+    private volatile int version;
+    private byte kind;
+    private long bits;
+    private @Nullable Object value;
+    private volatile @Nullable Conversions conversions;
+    private volatile boolean shared;
 
     ScalarNodeValue(A holder) {
         this.holder = holder;
@@ -33,7 +60,151 @@
 
     @Override
     public @Nullable Object get() {
-        return this.value;
+        while (true) {
+            final int version = this.beginRead();
+            final byte kind = this.kind;
+            final long bits = this.bits;
+            final @Nullable Object value = this.value;
+            if (this.validate(version)) {
+                return box(kind, bits, value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> @Nullable T getAs(final Class<T> type, final ConversionBus conversionBus) {
+        int version;
+        byte kind;
+        long bits;
+        @Nullable Object value;
+        do {
+            version = this.beginRead();
+            kind = this.kind;
+            bits = this.bits;
+            value = this.value;
+        } while (!this.validate(version));
+
+        // cached results are only valid for the exact write they were converted from
+        @Nullable Conversions conversions = this.conversions;
+        if (conversions != null && conversions.version != version) {
+            conversions = null;
+        }
+        if (conversions != null) {
+            final @Nullable Object cached = conversions.lookup(type);
+            if (cached != Conversions.MISSING) {
+                return (T) cached;
+            }
+        }
+
+        // primitives are boxed once per write
+        if (kind != KIND_OBJECT) {
+            if (conversions == null) {
+                conversions = new Conversions(version, box(kind, bits, value));
+                this.conversions = conversions;
+            }
+            value = conversions.boxed;
+        }
+
+        if (value == null || type.isInstance(value) || wrap(type) == value.getClass()) {
+            return (T) value;
+        }
+
+        final T converted;
+        try {
+            converted = conversionBus.convert(value, type);
+        } catch (ConversionException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (conversions == null) {
+            conversions = new Conversions(version, value);
+        }
+        this.conversions = conversions.with(type, converted);
+        return converted;
+    }
+
+    int getInt(final int def, final ConversionBus conversionBus) {
+        int version;
+        byte kind;
+        long bits;
+        @Nullable Object value;
+        do {
+            version = this.beginRead();
+            kind = this.kind;
+            bits = this.bits;
+            value = this.value;
+        } while (!this.validate(version));
+
+        if (kind == KIND_INT) {
+            return (int) bits;
+        } else if (value instanceof Integer boxed) {
+            return boxed;
+        }
+        final @Nullable Integer converted = this.getAs(Integer.class, conversionBus);
+        return converted == null ? def : converted;
+    }
+
+    long getLong(final long def, final ConversionBus conversionBus) {
+        int version;
+        byte kind;
+        long bits;
+        @Nullable Object value;
+        do {
+            version = this.beginRead();
+            kind = this.kind;
+            bits = this.bits;
+            value = this.value;
+        } while (!this.validate(version));
+
+        if (kind == KIND_LONG || kind == KIND_INT) {
+            return bits;
+        } else if (value instanceof Long boxed) {
+            return boxed;
+        }
+        final @Nullable Long converted = this.getAs(Long.class, conversionBus);
+        return converted == null ? def : converted;
+    }
+
+    double getDouble(final double def, final ConversionBus conversionBus) {
+        int version;
+        byte kind;
+        long bits;
+        @Nullable Object value;
+        do {
+            version = this.beginRead();
+            kind = this.kind;
+            bits = this.bits;
+            value = this.value;
+        } while (!this.validate(version));
+
+        if (kind == KIND_DOUBLE) {
+            return Double.longBitsToDouble(bits);
+        } else if (value instanceof Double boxed) {
+            return boxed;
+        }
+        final @Nullable Double converted = this.getAs(Double.class, conversionBus);
+        return converted == null ? def : converted;
+    }
+
+    boolean getBoolean(final boolean def, final ConversionBus conversionBus) {
+        int version;
+        byte kind;
+        long bits;
+        @Nullable Object value;
+        do {
+            version = this.beginRead();
+            kind = this.kind;
+            bits = this.bits;
+            value = this.value;
+        } while (!this.validate(version));
+
+        if (kind == KIND_BOOLEAN) {
+            return bits != 0;
+        } else if (value instanceof Boolean boxed) {
+            return boxed;
+        }
+        final @Nullable Boolean converted = this.getAs(Boolean.class, conversionBus);
+        return converted == null ? def : converted;
     }
 
     @Override
@@ -41,9 +212,80 @@ public void set(final @Nullable Object value) {
         // if (value != null && !this.holder.options().acceptsType(value.getClass())) {
         //     throw new IllegalArgumentException("Configuration does not accept objects of type " + value.getClass());
         // }
+        this.write(KIND_OBJECT, 0, value);
+    }
+
+    void setPrimitive(final byte kind, final long bits) {
+        this.write(kind, bits, null);
+    }
+
+    // sets the value of a scalar that was not published yet, so the version is not needed
+    void initialize(final byte kind, final long bits, final @Nullable Object value) {
+        this.kind = kind;
+        this.bits = bits;
         this.value = value;
     }
 
+    private void write(final byte kind, final long bits, final @Nullable Object value) {
+        // writers claim the value by moving the version from even to odd
+        int version;
+        do {
+            version = this.beginRead();
+        } while (!VERSION.compareAndSet(this, version, version + 1));
+        VarHandle.storeStoreFence();
+        this.kind = kind;
+        this.bits = bits;
+        this.value = value;
+        this.conversions = null;
+        this.version = version + 2;
+    }
+
+    private int beginRead() {
+        int version;
+        while (((version = this.version) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return version;
+    }
+
+    private boolean validate(final int version) {
+        VarHandle.acquireFence();
+        return this.version == version;
+    }
+
+    private static @Nullable Object box(final byte kind, final long bits, final @Nullable Object value) {
+        return switch (kind) {
+            case KIND_INT -> (int) bits;
+            case KIND_LONG -> bits;
+            case KIND_DOUBLE -> Double.longBitsToDouble(bits);
+            case KIND_BOOLEAN -> bits != 0;
+            default -> value;
+        };
+    }
+
+    private static Class<?> wrap(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return Void.class;
+    }
+
     @Override
     public @Nullable A putChild(final Object key, final @Nullable A value) {
         return null;
@@ -64,24 +306,52 @@ public Iterable<A> iterateChildren() {
         return Collections.emptySet();
     }
 
+    void copyTo(final ScalarNodeValue<?, ?> target) {
+        while (true) {
+            final int version = this.beginRead();
+            final byte kind = this.kind;
+            final long bits = this.bits;
+            final @Nullable Object value = this.value;
+            if (this.validate(version)) {
+                target.write(kind, bits, value);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public A holder() {
+        return this.holder;
+    }
+
+    @Override
+    public boolean isShared() {
+        return this.shared;
+    }
+
+    @Override
+    public void share() {
+        this.shared = true;
+    }
+
     @Override
-    public ScalarNodeValue<N, A> copy(final A holder) {
-        ScalarNodeValue<N, A> copy = new ScalarNodeValue<>(holder);
-        copy.value = this.value;
-        return copy;
+    public ScalarNodeValue<N, A> unshare(final A holder) {
+        ScalarNodeValue<N, A> unshared = new ScalarNodeValue<>(holder);
+        this.copyTo(unshared);
+        return unshared;
     }
 
     @Override
     @SuppressWarnings("checkstyle:UnnecessaryParentheses")
     public boolean isEmpty() {
-        final @Nullable Object value = this.value;
+        final @Nullable Object value = this.get();
         return (value instanceof String && ((String) value).isEmpty())
             || (value instanceof Collection<?> && ((Collection<?>) value).isEmpty());
     }
 
     @Override
     public void clear() {
-        this.value = null;
+        this.write(KIND_OBJECT, 0, null);
     }
 
     @Override
@@ -94,11 +364,56 @@ public boolean equals(final Object other) {
             return false;
         }
 
-        return Objects.equals(this.value, that.value);
+        return Objects.equals(this.get(), that.get());
     }
 
     @Override
     public int hashCode() {
-        return 7 + Objects.hashCode(this.value);
+        return 7 + Objects.hashCode(this.get());
+    }
+
+    private static final class Conversions {
+
+        static final Object MISSING = new Object();
+        private static final int MAX_TYPES = 8;
+
+        final int version;
+        // the value of the write, boxed if it is a primitive
+        final @Nullable Object boxed;
+        private final Class<?>[] types;
+        private final @Nullable Object[] results;
+
+        Conversions(int version, @Nullable Object boxed) {
+            this(version, boxed, new Class<?>[0], new Object[0]);
+        }
+
+        private Conversions(int version, @Nullable Object boxed, Class<?>[] types, @Nullable Object[] results) {
+            this.version = version;
+            this.boxed = boxed;
+            this.types = types;
+            this.results = results;
+        }
+
+        @Nullable Object lookup(final Class<?> type) {
+            final Class<?>[] types = this.types;
+            for (int i = 0; i < types.length; i++) {
+                if (types[i] == type) {
+                    return this.results[i];
+                }
+            }
+            return MISSING;
+        }
+
+        Conversions with(final Class<?> type, final @Nullable Object result) {
+            final int size = this.types.length;
+            if (size >= MAX_TYPES) {
+                return this;
+            }
+            final Class<?>[] types = Arrays.copyOf(this.types, size + 1);
+            final Object[] results = Arrays.copyOf(this.results, size + 1);
+            types[size] = type;
+            results[size] = result;
+            return new Conversions(this.version, this.boxed, types, results);
+        }
     }
 }
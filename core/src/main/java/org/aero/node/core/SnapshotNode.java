@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * An immutable node. Updates return the updated node within a new tree that shares all untouched structure with the
+ * tree of this node, map children are kept in a hash array mapped trie and list children in a persistent vector.
+ */
+public sealed interface SnapshotNode extends ScopedNode<SnapshotNode> permits SnapshotNodeImpl {
+
+    static @NotNull SnapshotNode create() {
+        return SnapshotNode.create(NodeOptions.defaults());
+    }
+
+    static @NotNull SnapshotNode create(@NotNull NodeOptions options) {
+        Check.notNull(options, "options");
+        return new SnapshotNodeImpl(options, null, null, null);
+    }
+
+    static @NotNull SnapshotNode of(@NotNull Node source) {
+        Check.notNull(source, "source");
+        return SnapshotNode.create(source.options()).from(source);
+    }
+
+    @NotNull SnapshotNode root();
+
+    @Override
+    @Nullable SnapshotNode parent();
+
+    @Override
+    @NotNull SnapshotNode node(@NotNull Iterable<?> path);
+
+    @Override
+    default @NotNull SnapshotNode node(Object @NotNull ... path) {
+        return this.node(Arrays.asList(path));
+    }
+
+    @Override
+    default @NotNull SnapshotNode node(@NotNull NodePath path) {
+        return this.node((Iterable<?>) path);
+    }
+
+    @Override
+    @NotNull SnapshotNode appendChild();
+
+    @Override
+    @NotNull SnapshotNode set(Object value);
+
+    @Override
+    @NotNull SnapshotNode setRaw(Object value);
+
+    @Override
+    default @NotNull SnapshotNode setInt(int value) {
+        return this.setRaw(value);
+    }
+
+    @Override
+    default @NotNull SnapshotNode setLong(long value) {
+        return this.setRaw(value);
+    }
+
+    @Override
+    default @NotNull SnapshotNode setDouble(double value) {
+        return this.setRaw(value);
+    }
+
+    @Override
+    default @NotNull SnapshotNode setBoolean(boolean value) {
+        return this.setRaw(value);
+    }
+
+    @Override
+    @NotNull SnapshotNode from(@NotNull Node other);
+
+    @Override
+    @NotNull SnapshotNode mergeFrom(@NotNull Node other);
+
+    /**
+     * Replaces the value of this node with the value of the given node, reusing every part of this snapshot that is
+     * equal to the corresponding part of the source. Only the changed nodes of the source allocate new structure.
+     *
+     * @param source the node to take the new value from
+     * @return the updated node
+     */
+    @NotNull SnapshotNode update(@NotNull Node source);
+
+    @NotNull SnapshotNode without(@NotNull Object key);
+
+    @Override
+    @NotNull SnapshotNode copy();
+
+    @NotNull BasicNode toBasicNode();
+
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.aero.common.core.validate.Check;
+import org.aero.conversion.core.exception.ConversionException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// values are either null, a raw scalar, a HashTrieMap of child values or a PersistentVector of child values
+final class SnapshotNodeImpl implements SnapshotNode {
+
+    // marks a value that is still being updated
+    private static final Object PENDING = new Object();
+
+    private final NodeOptions options;
+    private final @Nullable SnapshotNodeImpl parent;
+    private final @Nullable Object key;
+    private final @Nullable Object value;
+
+    SnapshotNodeImpl(NodeOptions options, @Nullable SnapshotNodeImpl parent, @Nullable Object key, @Nullable Object value) {
+        this.options = options;
+        this.parent = parent;
+        this.key = key;
+        this.value = value;
+    }
+
+    @Override
+    public @Nullable Object key() {
+        return this.key;
+    }
+
+    @Override
+    public @NotNull NodeOptions options() {
+        return this.options;
+    }
+
+    @Override
+    public @Nullable SnapshotNode parent() {
+        return this.parent;
+    }
+
+    @Override
+    public @NotNull SnapshotNode root() {
+        SnapshotNodeImpl root = this;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return root;
+    }
+
+    @Override
+    public @NotNull SnapshotNode node(@NotNull Iterable<?> path) {
+        SnapshotNodeImpl pointer = this;
+        for (final Object element : path) {
+            Check.notNull(element, "element in path");
+            pointer = pointer.child(element);
+        }
+        return pointer;
+    }
+
+    private SnapshotNodeImpl child(Object key) {
+        return new SnapshotNodeImpl(this.options, this, key, childValue(this.value, key));
+    }
+
+    @Override
+    public boolean hasChild(@NotNull Iterable<?> path) {
+        Object pointer = this.value;
+        for (final Object element : path) {
+            Check.notNull(element, "element in path");
+            pointer = childValue(pointer, element);
+            if (pointer == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public @NotNull SnapshotNode appendChild() {
+        return this.child(ListNodeValue.UNALLOCATED_IDX);
+    }
+
+    @Override
+    public boolean removeChild(@NotNull Object key) {
+        throw new UnsupportedOperationException("Snapshot nodes are immutable, use without(key) instead");
+    }
+
+    @Override
+    public @NotNull SnapshotNode without(@NotNull Object key) {
+        Check.notNull(key, "key");
+        return this.replace(withChild(this.value, key, null));
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return this.parent != null && this.value == null;
+    }
+
+    @Override
+    public boolean isNull() {
+        return this.value == null;
+    }
+
+    @Override
+    public boolean isList() {
+        return this.value instanceof PersistentVector<?>;
+    }
+
+    @Override
+    public boolean isMap() {
+        return this.value instanceof HashTrieMap<?, ?>;
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:UnnecessaryParentheses")
+    public boolean isEmpty() {
+        final Object value = this.value;
+        if (value instanceof HashTrieMap<?, ?> map) {
+            return map.isEmpty();
+        } else if (value instanceof PersistentVector<?> vector) {
+            return vector.isEmpty();
+        }
+        return value == null
+            || (value instanceof String && ((String) value).isEmpty())
+            || (value instanceof Collection<?> && ((Collection<?>) value).isEmpty());
+    }
+
+    @Override
+    public @Nullable Object get() {
+        return materialize(this.value);
+    }
+
+    @Override
+    public <T> @Nullable T getAs(@NotNull Class<T> type) {
+        Check.notNull(type, "type");
+        final Object value = this.get();
+        if (value == null) {
+            return null;
+        }
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        try {
+            return this.options.conversionBus().convert(value, type);
+        } catch (ConversionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // a snapshot can not store the default, it is only returned
+    @Override
+    public <T> @Nullable T getAsOrDefault(@NotNull Class<T> type, T def) {
+        final T value = this.getAs(type);
+        return value == null ? def : value;
+    }
+
+    @Override
+    public <T> @Nullable T getAsOrDefault(@NotNull Class<T> type, @NotNull Supplier<T> defSupplier) {
+        final T value = this.getAs(type);
+        return value == null ? defSupplier.get() : value;
+    }
+
+    @Override
+    public @NotNull SnapshotNode set(@Nullable Object value) {
+        if (value instanceof Node node) {
+            return this.from(node);
+        }
+        if (value == null || value instanceof Collection || value instanceof Map) {
+            return this.setRaw(value);
+        }
+        try {
+            return this.setRaw(this.options.conversionBus().convertToObject(value));
+        } catch (ConversionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public @NotNull SnapshotNode setRaw(@Nullable Object value) {
+        Check.argCondition(value instanceof Node, "Cannot set a node as the raw value of another node");
+        return this.replace(fromRaw(value));
+    }
+
+    @Override
+    public @NotNull SnapshotNode from(@NotNull Node other) {
+        if (other == this) {
+            return this;
+        }
+        return this.replace(valueOf(other));
+    }
+
+    @Override
+    public @NotNull SnapshotNode mergeFrom(@NotNull Node other) {
+        final Object merged;
+        if ((this.isVirtual() || this.isEmpty()) && !other.isVirtual()) {
+            merged = valueOf(other);
+        } else {
+            merged = merge(this.value, valueOf(other));
+        }
+        return merged == this.value ? this : this.replace(merged);
+    }
+
+    @Override
+    public @NotNull SnapshotNode update(@NotNull Node source) {
+        Check.notNull(source, "source");
+        final Object updated = update(this.value, source);
+        return updated == this.value ? this : this.replace(updated);
+    }
+
+    @Override
+    public @Nullable Object rawScalar() {
+        final Object value = this.value;
+        return value instanceof HashTrieMap<?, ?> || value instanceof PersistentVector<?> ? null : value;
+    }
+
+    @Override
+    public List<SnapshotNode> childrenList() {
+        if (!(this.value instanceof PersistentVector<?> vector)) {
+            return Collections.emptyList();
+        }
+        final List<SnapshotNode> children = new ArrayList<>(vector.size());
+        for (int i = 0; i < vector.size(); i++) {
+            children.add(new SnapshotNodeImpl(this.options, this, i, vector.get(i)));
+        }
+        return Collections.unmodifiableList(children);
+    }
+
+    @Override
+    public Map<Object, SnapshotNode> childrenMap() {
+        if (!(this.value instanceof HashTrieMap<?, ?> map)) {
+            return Collections.emptyMap();
+        }
+        final Map<Object, SnapshotNode> children = new LinkedHashMap<>();
+        for (final Map.Entry<?, ?> entry : map) {
+            children.put(entry.getKey(), new SnapshotNodeImpl(this.options, this, entry.getKey(), entry.getValue()));
+        }
+        return Collections.unmodifiableMap(children);
+    }
+
+    @Override
+    public @NotNull SnapshotNode copy() {
+        return this;
+    }
+
+    @Override
+    public @NotNull BasicNode toBasicNode() {
+        final BasicNode node = BasicNode.create(this.options);
+        node.from(this);
+        return node;
+    }
+
+    @Override
+    public SnapshotNode self() {
+        return this;
+    }
+
+    // returns the node at the position of this node within a new tree holding the given value
+    private SnapshotNodeImpl replace(@Nullable Object value) {
+        final SnapshotNodeImpl parent = this.parent;
+        if (parent == null) {
+            return new SnapshotNodeImpl(this.options, null, null, value);
+        }
+
+        final SnapshotNodeImpl newParent = parent.replace(withChild(parent.value, this.key, value));
+        Object key = this.key;
+        if (key == ListNodeValue.UNALLOCATED_IDX && value != null) {
+            key = ((PersistentVector<?>) newParent.value).size() - 1;
+        }
+        return new SnapshotNodeImpl(this.options, newParent, key, value);
+    }
+
+    private static @Nullable Object childValue(@Nullable Object value, Object key) {
+        if (value instanceof HashTrieMap<?, ?> map) {
+            return map.get(key);
+        } else if (value instanceof PersistentVector<?> vector && key instanceof Integer index) {
+            return vector.get(index);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @Nullable Object withChild(@Nullable Object value, Object key, @Nullable Object child) {
+        if (child == null) {
+            // removal
+            if (value instanceof HashTrieMap<?, ?> map) {
+                return map.without(key);
+            } else if (value instanceof PersistentVector<?> vector && key instanceof Integer index) {
+                return vector.withoutIndex(index);
+            }
+            return value;
+        }
+
+        final boolean append = key == ListNodeValue.UNALLOCATED_IDX;
+        if (value instanceof HashTrieMap<?, ?> map && !append) {
+            return ((HashTrieMap<Object, Object>) map).with(key, child);
+        }
+        if (value instanceof PersistentVector<?> || append || (!(value instanceof HashTrieMap<?, ?>) && key instanceof Integer)) {
+            PersistentVector<Object> vector;
+            if (value instanceof PersistentVector<?>) {
+                vector = (PersistentVector<Object>) value;
+            } else if (value == null || value instanceof HashTrieMap<?, ?>) {
+                // like a mutable node, appending to a map replaces it with a new list
+                vector = PersistentVector.empty();
+            } else {
+                // like a mutable node, a scalar becomes the first element of the new list
+                vector = PersistentVector.empty().append(value);
+            }
+            if (append) {
+                return vector.append(child);
+            } else if (key instanceof Integer index) {
+                return vector.with(index, child);
+            }
+        }
+        return HashTrieMap.empty().with(key, child);
+    }
+
+    static @Nullable Object valueOf(Node node) {
+        if (node instanceof SnapshotNodeImpl snapshot) {
+            return snapshot.value;
+        }
+        return update(null, node);
+    }
+
+    // walks the source with an explicit stack. A subtree of an AbstractNode that hashes like the previous value is
+    // taken over without descending, so only the changed nodes of the source are visited
+    private static @Nullable Object update(@Nullable Object previous, Node source) {
+        final Deque<UpdateFrame> stack = new ArrayDeque<>();
+        @Nullable Object result = open(previous, source, stack);
+        while (!stack.isEmpty()) {
+            final UpdateFrame frame = stack.peek();
+            if (frame.children.hasNext()) {
+                final Node child = frame.children.next();
+                final @Nullable Object updated = open(frame.previous(child), child, stack);
+                if (updated != PENDING) {
+                    frame.accept(updated);
+                }
+                continue;
+            }
+            stack.pop();
+            result = frame.finish();
+            if (!stack.isEmpty()) {
+                stack.peek().accept(result);
+            }
+        }
+        return result;
+    }
+
+    // the updated value of a scalar or unchanged subtree, otherwise PENDING after pushing a frame for its children
+    @SuppressWarnings("unchecked")
+    private static @Nullable Object open(@Nullable Object previous, Node source, Deque<UpdateFrame> stack) {
+        if (source instanceof SnapshotNodeImpl snapshot) {
+            return snapshot.value;
+        }
+        if ((previous instanceof HashTrieMap<?, ?> || previous instanceof PersistentVector<?>)
+            && source instanceof AbstractNode<?, ?> node && NodeHasher.hash(node) == NodeHasher.hash(previous)) {
+            return previous;
+        }
+
+        if (source.isMap()) {
+            stack.push(new UpdateFrame(source, previous instanceof HashTrieMap<?, ?>
+                ? (HashTrieMap<Object, Object>) previous : HashTrieMap.empty()));
+            return PENDING;
+        } else if (source.isList()) {
+            stack.push(new UpdateFrame(source, previous instanceof PersistentVector<?>
+                ? (PersistentVector<Object>) previous : PersistentVector.empty()));
+            return PENDING;
+        }
+
+        final Object scalar = source.rawScalar();
+        return Objects.equals(scalar, previous) ? previous : scalar;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @Nullable Object merge(@Nullable Object target, @Nullable Object source) {
+        if (target == null) {
+            return source;
+        }
+        if (source instanceof HashTrieMap<?, ?> sourceMap) {
+            if (!(target instanceof HashTrieMap<?, ?>)) {
+                return target;
+            }
+            HashTrieMap<Object, Object> result = (HashTrieMap<Object, Object>) target;
+            for (final Map.Entry<?, ?> entry : sourceMap) {
+                result = result.with(entry.getKey(), merge(result.get(entry.getKey()), entry.getValue()));
+            }
+            return result;
+        }
+        // lists and scalars only replace missing values
+        return target;
+    }
+
+    private static @Nullable Object fromRaw(@Nullable Object raw) {
+        if (raw instanceof Map<?, ?> map) {
+            HashTrieMap<Object, Object> result = HashTrieMap.empty();
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                final Object value = fromRaw(entry.getValue());
+                if (value != null) {
+                    result = result.with(entry.getKey(), value);
+                }
+            }
+            return result;
+        } else if (raw instanceof Collection<?> collection) {
+            PersistentVector<Object> result = PersistentVector.empty();
+            for (final Object element : collection) {
+                final Object value = fromRaw(element);
+                if (value != null) {
+                    result = result.append(value);
+                }
+            }
+            return result;
+        }
+        return raw;
+    }
+
+    private static @Nullable Object materialize(@Nullable Object value) {
+        if (value instanceof HashTrieMap<?, ?> map) {
+            final Map<Object, Object> result = new LinkedHashMap<>();
+            for (final Map.Entry<?, ?> entry : map) {
+                result.put(entry.getKey(), materialize(entry.getValue()));
+            }
+            return result;
+        } else if (value instanceof PersistentVector<?> vector) {
+            final List<Object> result = new ArrayList<>(vector.size());
+            for (final Object element : vector) {
+                result.add(materialize(element));
+            }
+            return result;
+        }
+        return value;
+    }
+
+    // the children of a map or list being updated, either base and entries or vector are set
+    private static final class UpdateFrame {
+
+        private final Iterator<? extends Node> children;
+        private final @Nullable Map<Object, ? extends Node> entries;
+        private final @Nullable HashTrieMap<Object, Object> base;
+        private @Nullable HashTrieMap<Object, Object> map;
+        private @Nullable PersistentVector<Object> vector;
+        private @Nullable Object key;
+        private @Nullable Object old;
+        private int present;
+
+        UpdateFrame(Node source, HashTrieMap<Object, Object> base) {
+            this.entries = source.childrenMap();
+            this.children = this.entries.values().iterator();
+            this.base = base;
+            this.map = base;
+        }
+
+        UpdateFrame(Node source, PersistentVector<Object> vector) {
+            this.children = source.childrenList().iterator();
+            this.entries = null;
+            this.base = null;
+            this.vector = vector;
+        }
+
+        @Nullable Object previous(Node child) {
+            if (this.base != null) {
+                this.key = Objects.requireNonNull(child.key(), "key");
+                this.old = this.base.get(this.key);
+            } else {
+                final PersistentVector<Object> vector = Objects.requireNonNull(this.vector);
+                this.old = this.present < vector.size() ? vector.get(this.present) : null;
+            }
+            return this.old;
+        }
+
+        void accept(@Nullable Object updated) {
+            if (this.base != null) {
+                final Object key = Objects.requireNonNull(this.key);
+                if (updated == null) {
+                    this.map = Objects.requireNonNull(this.map).without(key);
+                } else {
+                    if (updated != this.old) {
+                        this.map = Objects.requireNonNull(this.map).with(key, updated);
+                    }
+                    this.present++;
+                }
+            } else if (updated != null) {
+                // null children are dropped, so the following ones move up
+                if (updated != this.old) {
+                    this.vector = Objects.requireNonNull(this.vector).with(this.present, updated);
+                }
+                this.present++;
+            }
+        }
+
+        Object finish() {
+            if (this.base == null) {
+                // elements past the last child are left over from the previous value
+                return Objects.requireNonNull(this.vector).take(this.present);
+            }
+            HashTrieMap<Object, Object> map = Objects.requireNonNull(this.map);
+            if (map.size() != this.present) {
+                final Map<Object, ? extends Node> entries = Objects.requireNonNull(this.entries);
+                for (final Map.Entry<Object, Object> entry : this.base) {
+                    if (!entries.containsKey(entry.getKey())) {
+                        map = map.without(entry.getKey());
+                    }
+                }
+            }
+            return map;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof SnapshotNodeImpl that)) {
+            return false;
+        }
+
+        return Objects.equals(this.key, that.key) && Objects.equals(this.value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.key) ^ Objects.hashCode(this.value);
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryNodeCodecTest {
+
+    private static BasicNode roundTrip(final Node node) throws IOException {
+        final ByteBuffer buffer = BinaryNodeCodec.encode(node);
+        final BasicNode decoded = BinaryNodeCodec.decode(buffer);
+        assertFalse(buffer.hasRemaining());
+        return decoded;
+    }
+
+    @Test
+    void testScalars() throws IOException {
+        final List<Object> values = List.of(0, -1, Integer.MAX_VALUE, Long.MIN_VALUE, 1.5f, -2.25, true, false, "",
+            "h\u00e9llo", new BigInteger("123456789012345678901234567890"), new BigDecimal("-1.25"));
+        for (final Object value : values) {
+            assertEquals(value, roundTrip(BasicNode.create().set(value)).get());
+        }
+        assertNull(roundTrip(BasicNode.create()).get());
+    }
+
+    @Test
+    void testContainers() throws IOException {
+        final BasicNode node = BasicNode.create();
+        node.setRaw(Map.of("a", Map.of("b", List.of(1, "x", Map.of()), "c", 2L), "d", List.of(), "e", "f"));
+        node.node("g").setRaw(List.of("value", "key"));
+
+        final BasicNode decoded = roundTrip(node);
+        assertEquals(node, decoded);
+        assertEquals(node.get(), decoded.get());
+        assertEquals("key", decoded.node("g", 1).get());
+    }
+
+    @Test
+    void testDeepTree() throws IOException {
+        final int depth = 100000;
+        final BasicNode node = JsonNodeReader.read(new StringReader("[".repeat(depth) + "1" + "]".repeat(depth)));
+
+        Node decoded = roundTrip(node);
+        for (int i = 0; i < depth; i++) {
+            decoded = decoded.node(0);
+        }
+        assertEquals(1, decoded.getInt());
+    }
+
+    @Test
+    void testTruncated() {
+        final ByteBuffer buffer = BinaryNodeCodec.encode(BasicNode.create().setRaw(Map.of("a", List.of(1, 2, 3))));
+        buffer.limit(buffer.limit() - 1);
+        final BasicNode target = BasicNode.create();
+        target.set("kept");
+
+        assertThrows(IOException.class, () -> BinaryNodeCodec.decode(buffer, target));
+        assertEquals("kept", target.get());
+    }
+
+    @Test
+    void testMalformed() {
+        assertThrows(IOException.class, () -> BinaryNodeCodec.decode(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6})));
+        // a big integer without any bytes
+        final byte[] empty = {'A', 'N', 'O', 'D', BinaryFormat.VERSION, 0, BinaryFormat.TAG_BIG_INTEGER, 0};
+        assertThrows(IOException.class, () -> BinaryNodeCodec.decode(ByteBuffer.wrap(empty)));
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CopyOnWriteTest {
+
+    private static BasicNode create() {
+        final BasicNode node = BasicNode.create(NodeOptions.defaults().copyOnWrite(true));
+        node.setRaw(Map.of("a", Map.of("x", 1), "b", List.of(1, 2)));
+        return node;
+    }
+
+    @Test
+    void testWriteToOriginal() {
+        final BasicNode original = create();
+        final Node copy = original.copy();
+
+        original.node("a", "x").setInt(2);
+        original.node("b").appendChild().setInt(3);
+
+        assertEquals(Map.of("a", Map.of("x", 2), "b", List.of(1, 2, 3)), original.get());
+        assertEquals(Map.of("a", Map.of("x", 1), "b", List.of(1, 2)), copy.get());
+    }
+
+    @Test
+    void testWriteToCopy() {
+        final BasicNode original = create();
+        final Node copy = original.copy();
+
+        copy.node("a", "x").setInt(2);
+        copy.node("a", "y").setInt(3);
+
+        assertEquals(Map.of("a", Map.of("x", 1), "b", List.of(1, 2)), original.get());
+        assertEquals(Map.of("x", 2, "y", 3), copy.node("a").get());
+    }
+
+    @Test
+    void testWriteAfterClear() {
+        final BasicNode original = create();
+        final Node kept = original.node("a");
+        final Node copy = original.copy();
+
+        original.set(null);
+        kept.node("x").setInt(2);
+        kept.node("y").setInt(3);
+
+        assertEquals(Map.of("a", Map.of("x", 1), "b", List.of(1, 2)), copy.get());
+    }
+
+    @Test
+    void testWriteAfterTypeChange() {
+        final BasicNode original = create();
+        original.node("a", "m", "q").setInt(1);
+        final Node kept = original.node("a", "m", "q");
+        final Node copy = original.copy();
+
+        original.node("a").set("scalar");
+        kept.setInt(2);
+
+        assertEquals(1, copy.node("a", "m", "q").getInt());
+        assertEquals(1, copy.node("a", "x").getInt());
+    }
+
+    @Test
+    void testVisitCopy() {
+        final BasicNode original = create();
+        final Node copy = original.copy();
+
+        // writes through the visited nodes stay within the copy
+        copy.visit(new NodeVisitor() {
+            @Override
+            public void visitScalar(final Node node) {
+                node.setInt(0);
+            }
+        });
+
+        assertEquals(Map.of("a", Map.of("x", 0), "b", List.of(0, 0)), copy.get());
+        assertEquals(Map.of("a", Map.of("x", 1), "b", List.of(1, 2)), original.get());
+    }
+
+    @Test
+    void testConcurrentWrites() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final BasicNode original = create();
+            final Node first = original.node("a", "x");
+            final Node second = original.node("b", 0);
+            final Node copy = original.copy();
+            final CyclicBarrier barrier = new CyclicBarrier(2);
+            final Thread thread = new Thread(() -> {
+                await(barrier);
+                first.setInt(2);
+            });
+            thread.start();
+            await(barrier);
+            second.setInt(3);
+            thread.join();
+
+            assertEquals(Map.of("a", Map.of("x", 2), "b", List.of(3, 2)), original.get());
+            assertEquals(Map.of("a", Map.of("x", 1), "b", List.of(1, 2)), copy.get());
+        }
+    }
+
+    private static void await(final CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListNodeTest {
+
+    private static Node list(final int size) {
+        final BasicNode node = BasicNode.create();
+        for (int i = 0; i < size; i++) {
+            node.appendChild().set("v" + i);
+        }
+        return node;
+    }
+
+    @Test
+    void testRemoveReindexes() {
+        final Node list = list(6);
+        final Node kept = list.node(3);
+
+        assertTrue(list.removeChild(1));
+        assertTrue(list.removeChild(0));
+
+        assertEquals(1, kept.key());
+        assertEquals("v3", kept.get());
+        assertEquals(List.of("v2", "v3", "v4", "v5"), list.get());
+        assertEquals(kept, list.node(1));
+    }
+
+    @Test
+    void testKeysAfterRemove() {
+        final Node list = list(5);
+        list.removeChild(2);
+        list.removeChild(0);
+        final List<Object> keys = new ArrayList<>();
+        final List<Object> childKeys = new ArrayList<>();
+
+        list.forEachChild((key, child) -> {
+            keys.add(key);
+            childKeys.add(child.key());
+        });
+
+        assertEquals(List.of(0, 1, 2), keys);
+        assertEquals(keys, childKeys);
+    }
+
+    @Test
+    void testAppendAfterRemove() {
+        final Node list = list(4);
+        list.removeChild(1);
+
+        final Node appended = list.appendChild().set("x");
+
+        assertEquals(3, appended.key());
+        assertEquals(List.of("v0", "v2", "v3", "x"), list.get());
+    }
+
+    @Test
+    void testRemoveFromCopy() {
+        final BasicNode root = BasicNode.create();
+        root.node("l").setRaw(List.of(1, 2, 3));
+        final Node copy = root.copy();
+
+        copy.node("l").removeChild(0);
+
+        assertEquals(Map.of("l", List.of(2, 3)), copy.get());
+        assertEquals(Map.of("l", List.of(1, 2, 3)), root.get());
+        assertEquals(0, copy.node("l", 0).key());
+    }
+
+    @Test
+    void testRemoveMany() {
+        final Node list = list(1000);
+        for (int i = 0; i < 500; i++) {
+            list.removeChild(0);
+        }
+
+        assertEquals(500, list.childrenList().size());
+        assertEquals(0, list.node(0).key());
+        assertEquals("v500", list.node(0).get());
+        assertEquals(499, list.node(499).key());
+    }
+
+    @Test
+    void testConcurrentAppends() throws Exception {
+        final Node list = BasicNode.create();
+        final int threads = 4;
+        final int appends = 1000;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final Thread worker = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (final Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int j = 0; j < appends; j++) {
+                    list.appendChild().setInt(j);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+
+        final Set<Object> keys = new HashSet<>();
+        list.forEachChild((key, child) -> keys.add(child.key()));
+        assertEquals(threads * appends, keys.size());
+        assertEquals(threads * appends, list.childrenList().size());
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class NodeDiffTest {
+
+    @Test
+    void testSwappedValues() {
+        final BasicNode left = BasicNode.create();
+        left.node("a").set(1);
+        left.node("b").set(2);
+        final BasicNode right = BasicNode.create();
+        right.node("a").set(2);
+        right.node("b").set(1);
+
+        assertNotEquals(left, right);
+        assertEquals(List.of(changed("a"), changed("b")), left.diff(right));
+    }
+
+    @Test
+    void testCollidingStringHashes() {
+        // "Aa" and "BB" share their String hash, which the subtree hashes do not depend on
+        final BasicNode left = BasicNode.create();
+        left.node("a").set("Aa");
+        final BasicNode right = BasicNode.create();
+        right.node("a").set("BB");
+
+        assertNotEquals(left, right);
+        assertEquals(List.of(changed("a")), left.diff(right));
+    }
+
+    @Test
+    void testNumberTypes() {
+        final BasicNode left = BasicNode.create();
+        left.node("a").setRaw(1);
+        final BasicNode right = BasicNode.create();
+        right.node("a").setRaw(1L);
+
+        assertEquals(List.of(changed("a")), left.diff(right));
+    }
+
+    @Test
+    void testEqualTrees() {
+        final BasicNode left = BasicNode.create();
+        left.node("a", "b").set(1);
+        left.node("l").appendChild().set("x");
+        final BasicNode right = BasicNode.create();
+        right.from(left);
+        right.node("a", "c").set(2);
+
+        assertEquals(List.of(added("a", "c")), left.diff(right));
+        right.node("a", "c").set(null);
+        assertEquals(left, right);
+        assertEquals(List.of(), left.diff(right));
+    }
+
+    private static NodeDifference changed(final Object... path) {
+        return new NodeDifference(NodeDifference.Type.CHANGED, NodePath.of(path));
+    }
+
+    private static NodeDifference added(final Object... path) {
+        return new NodeDifference(NodeDifference.Type.ADDED, NodePath.of(path));
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020-2023 AeroService
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.aero.node.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SnapshotNodeTest {
+
+    @Test
+    void testAppendToList() {
+        final SnapshotNode list = SnapshotNode.create().setRaw(List.of("a", "b"));
+        final SnapshotNode appended = list.appendChild().set("c");
+
+        assertEquals(2, appended.key());
+        assertEquals(List.of("a", "b", "c"), appended.root().get());
+        assertEquals(List.of("a", "b"), list.get());
+    }
+
+    @Test
+    void testAppendToMap() {
+        final SnapshotNode map = SnapshotNode.create().setRaw(Map.of("a", 1, "b", 2));
+        final SnapshotNode appended = map.appendChild().set("c");
+
+        // like a mutable node, the map is replaced by a new list
+        assertEquals(0, appended.key());
+        assertEquals(List.of("c"), appended.root().get());
+        assertEquals(Map.of("a", 1, "b", 2), map.get());
+    }
+
+    @Test
+    void testAppendToScalar() {
+        final SnapshotNode scalar = SnapshotNode.create().set("a");
+
+        assertEquals(List.of("a", "b"), scalar.appendChild().set("b").root().get());
+    }
+
+    @Test
+    void testWithout() {
+        final SnapshotNode snapshot = SnapshotNode.create().setRaw(Map.of("a", 1, "l", List.of("x", "y", "z")));
+
+        assertEquals(Map.of("l", List.of("x", "y", "z")), snapshot.without("a").get());
+        assertEquals(List.of("x", "z"), snapshot.node("l").without(1).get());
+        assertEquals(Map.of("a", 1, "l", List.of("x", "y", "z")), snapshot.get());
+    }
+
+    @Test
+    void testUpdate() {
+        final BasicNode source = BasicNode.create();
+        source.setRaw(Map.of("a", Map.of("b", 1), "l", List.of("x", "y", "z"), "s", "v"));
+        final SnapshotNode snapshot = SnapshotNode.of(source);
+
+        // an unchanged source keeps the snapshot
+        assertSame(snapshot, snapshot.update(source));
+
+        source.node("a", "b").set(2);
+        source.node("l").setRaw(List.of("x", "y"));
+        source.node("s").set(null);
+        assertEquals(Map.of("a", Map.of("b", 2), "l", List.of("x", "y")), snapshot.update(source).get());
+        assertEquals(Map.of("a", Map.of("b", 1), "l", List.of("x", "y", "z"), "s", "v"), snapshot.get());
+    }
+
+    @Test
+    void testUpdateDeepTree() throws IOException {
+        final int depth = 100_000;
+        final BasicNode source = JsonNodeReader.read(new StringReader("{\"k\":".repeat(depth) + "1" + "}".repeat(depth)));
+        final Object[] path = new Object[depth];
+        Arrays.fill(path, "k");
+        final SnapshotNode snapshot = SnapshotNode.of(source);
+
+        source.node(path).set(2);
+        assertEquals(2, snapshot.update(source).node(path).get());
+        assertEquals(1, snapshot.node(path).get());
+    }
+
+}
@@ -27,3 +27,4 @@ pluginManagement {
 
 rootProject.name = "Node"
 include("core")
+include("benchmarks")